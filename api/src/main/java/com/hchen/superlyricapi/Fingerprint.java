@@ -0,0 +1,94 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.os.Parcel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Consumer;
+
+/**
+ * 64 位内容指纹的计算工具
+ * <p>
+ * 字符串每 4 个字符合并为一个 long 计算，不使用只有 32 位的 {@link String#hashCode()}；
+ * 无法逐项比较的数据 (例如 Bundle) 可序列化后按字节计算
+ *
+ * @author 焕晨HChen
+ */
+final class Fingerprint {
+    static final long SEED = 0x9e3779b97f4a7c15L;
+    private static final long NULL = 0x5bd1e9955bd1e995L;
+
+    private Fingerprint() {
+    }
+
+    static long mix(long hash, long value) {
+        hash ^= value * 0xff51afd7ed558ccdL;
+        return Long.rotateLeft(hash, 31) * 0xc4ceb9fe1a85ec53L;
+    }
+
+    static long mix(long hash, @Nullable String value) {
+        if (value == null) return mix(hash, NULL);
+        int length = value.length();
+        hash = mix(hash, length);
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            hash = mix(hash, value.charAt(i) | (long) value.charAt(i + 1) << 16 |
+                    (long) value.charAt(i + 2) << 32 | (long) value.charAt(i + 3) << 48);
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) tail |= (long) value.charAt(i) << shift;
+        return mix(hash, tail);
+    }
+
+    static long mix(long hash, @Nullable byte[] value) {
+        if (value == null) return mix(hash, NULL);
+        hash = mix(hash, value.length);
+        ByteBuffer buffer = ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.remaining() >= 8) hash = mix(hash, buffer.getLong());
+        long tail = 0;
+        for (int shift = 0; buffer.hasRemaining(); shift += 8) tail |= (buffer.get() & 0xffL) << shift;
+        return mix(hash, tail);
+    }
+
+    /**
+     * 序列化后按字节计算完整的内容指纹，适用于不可变、只需计算一次的数据
+     */
+    static long of(@NonNull Consumer<Parcel> writer) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            writer.accept(parcel);
+            return finish(mix(SEED, parcel.marshall()));
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
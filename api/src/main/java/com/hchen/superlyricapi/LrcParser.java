@@ -0,0 +1,271 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * LRC 歌词解析器
+ * <p>
+ * 支持标准 LRC、单行多个时间标签、[offset:] 标签与 &lt;mm:ss.xx&gt; 格式的逐字歌词
+ * <p>
+ * 单次遍历输入，直接写入 {@link SuperLyricTimeline} 的文本缓冲区与 int 数组，解析过程中不会为标签或单词创建字符串
+ *
+ * @author 焕晨HChen
+ */
+public final class LrcParser {
+    private final SuperLyricTimeline.Builder builder = new SuperLyricTimeline.Builder();
+    /**
+     * [offset:] 标签的值 (毫秒)，正值表示歌词提前显示
+     */
+    private int offset = 0;
+    private int[] lineTimes = new int[4];
+    private int[] wordTimes = new int[32];
+    private int[] wordOffsets = new int[32];
+    /**
+     * 最后一个单词的结束时间，-1 表示未知
+     */
+    private int wordEndTime = -1;
+
+    private LrcParser() {
+    }
+
+    /**
+     * 解析 LRC 歌词
+     *
+     * @throws IllegalArgumentException 歌词数据不合法
+     */
+    @NonNull
+    public static SuperLyricTimeline parse(@NonNull CharSequence lrc) {
+        LrcParser parser = new LrcParser();
+        int length = lrc.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = lrc.charAt(i);
+            if (c == '\n' || c == '\r') {
+                parser.parseLine(lrc, start, i);
+                start = i + 1;
+            }
+        }
+        parser.parseLine(lrc, start, length);
+        return parser.build();
+    }
+
+    /**
+     * 解析 LRC 歌词，不会关闭 Reader
+     *
+     * @throws IOException              读取失败
+     * @throws IllegalArgumentException 歌词数据不合法
+     */
+    @NonNull
+    public static SuperLyricTimeline parse(@NonNull Reader reader) throws IOException {
+        LrcParser parser = new LrcParser();
+        StringBuilder line = new StringBuilder(128);
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c == '\n' || c == '\r') {
+                    parser.parseLine(line, 0, line.length());
+                    line.setLength(0);
+                } else line.append(c);
+            }
+        }
+        parser.parseLine(line, 0, line.length());
+        return parser.build();
+    }
+
+    @NonNull
+    private SuperLyricTimeline build() {
+        builder.shift(-offset);
+        return builder.build();
+    }
+
+    private void parseLine(@NonNull CharSequence s, int start, int end) {
+        int count = 0;
+        int position = start;
+        while (position < end && s.charAt(position) == '[') {
+            int close = indexOf(s, ']', position + 1, end);
+            if (close < 0) break;
+
+            int time = parseTime(s, position + 1, close);
+            if (time < 0) {
+                if (count == 0) {
+                    // [ti:] [ar:] [offset:] 等标签行
+                    parseTag(s, position + 1, close);
+                    return;
+                }
+                break;
+            }
+
+            if (count == lineTimes.length) lineTimes = Arrays.copyOf(lineTimes, count * 2);
+            lineTimes[count++] = time;
+            position = close + 1;
+        }
+        if (count == 0) return;
+
+        while (position < end && Character.isWhitespace(s.charAt(position))) position++;
+        while (end > position && Character.isWhitespace(s.charAt(end - 1))) end--;
+
+        // 单行多个时间标签时，逐字歌词时间以第一个时间标签为基准平移
+        for (int i = 0; i < count; i++) {
+            builder.beginLine(lineTimes[i], null);
+            int words = appendBody(s, position, end);
+            addWords(words, lineTimes[i] - lineTimes[0]);
+        }
+    }
+
+    /**
+     * 写入歌词文本并记录逐字时间标签
+     *
+     * @return 单词数量
+     */
+    private int appendBody(@NonNull CharSequence s, int start, int end) {
+        int words = 0;
+        int segment = start;
+        int i = start;
+        while (i < end) {
+            if (s.charAt(i) == '<') {
+                int close = indexOf(s, '>', i + 1, end);
+                int time = close < 0 ? -1 : parseTime(s, i + 1, close);
+                if (time >= 0) {
+                    builder.appendText(s, segment, i);
+                    if (words == wordTimes.length) {
+                        wordTimes = Arrays.copyOf(wordTimes, words * 2);
+                        wordOffsets = Arrays.copyOf(wordOffsets, words * 2);
+                    }
+                    wordTimes[words] = time;
+                    wordOffsets[words] = builder.textLength();
+                    words++;
+
+                    i = close + 1;
+                    segment = i;
+                    continue;
+                }
+            }
+            i++;
+        }
+        builder.appendText(s, segment, end);
+
+        // 行尾的时间标签表示最后一个单词的结束时间
+        wordEndTime = -1;
+        if (words > 0 && wordOffsets[words - 1] == builder.textLength()) {
+            words--;
+            wordEndTime = wordTimes[words];
+        }
+        return words;
+    }
+
+    private void addWords(int words, int shift) {
+        for (int i = 0; i < words; i++) {
+            int duration;
+            if (i + 1 < words) duration = wordTimes[i + 1] - wordTimes[i];
+            else duration = wordEndTime >= 0 ? wordEndTime - wordTimes[i] : 0;
+            builder.addWord(wordTimes[i] + shift, Math.max(duration, 0), wordOffsets[i]);
+        }
+    }
+
+    private void parseTag(@NonNull CharSequence s, int start, int end) {
+        String key = "offset:";
+        if (end - start <= key.length()) return;
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.toLowerCase(s.charAt(start + i)) != key.charAt(i)) return;
+        }
+
+        int i = start + key.length();
+        while (i < end && s.charAt(i) == ' ') i++;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+
+        int value = 0;
+        int digits = 0;
+        while (i < end && isDigit(s.charAt(i)) && digits < 9) {
+            value = value * 10 + (s.charAt(i) - '0');
+            digits++;
+            i++;
+        }
+        if (digits > 0) offset = negative ? -value : value;
+    }
+
+    /**
+     * 解析 mm:ss、mm:ss.x、mm:ss.xx、mm:ss.xxx 格式的时间 (分隔符也可以是 ':')
+     *
+     * @return 毫秒，格式不合法时返回 -1
+     */
+    private static int parseTime(@NonNull CharSequence s, int start, int end) {
+        int i = start;
+        int minutes = 0;
+        int digits = 0;
+        while (i < end && isDigit(s.charAt(i)) && digits < 5) {
+            minutes = minutes * 10 + (s.charAt(i) - '0');
+            digits++;
+            i++;
+        }
+        if (digits == 0 || i >= end || s.charAt(i) != ':') return -1;
+        i++;
+
+        int seconds = 0;
+        digits = 0;
+        while (i < end && isDigit(s.charAt(i)) && digits < 2) {
+            seconds = seconds * 10 + (s.charAt(i) - '0');
+            digits++;
+            i++;
+        }
+        if (digits == 0) return -1;
+
+        int millis = 0;
+        if (i < end) {
+            char c = s.charAt(i);
+            if (c != '.' && c != ':') return -1;
+            i++;
+
+            digits = 0;
+            while (i < end && isDigit(s.charAt(i))) {
+                if (digits < 3) {
+                    millis = millis * 10 + (s.charAt(i) - '0');
+                    digits++;
+                }
+                i++;
+            }
+            if (digits == 0 || i != end) return -1;
+            if (digits == 1) millis *= 100;
+            else if (digits == 2) millis *= 10;
+        }
+        return (minutes * 60 + seconds) * 1000 + millis;
+    }
+
+    private static int indexOf(@NonNull CharSequence s, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
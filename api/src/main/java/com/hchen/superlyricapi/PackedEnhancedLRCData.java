@@ -0,0 +1,245 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.os.Parcel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 紧凑的逐字歌词数据
+ * <p>
+ * 所有单词拼接为一段文本，并使用 int 数组记录每个单词的起始位置与持续时间
+ * <p>
+ * 传递时一次性写入与读取，仅在调用 {@link #toArray()} 时才会创建 {@link SuperLyricData.EnhancedLRCData} 对象
+ * <p>
+ * 实例不可变，传入与返回的数组均为副本，计算指纹或发送后内容不会再被修改
+ *
+ * @author 焕晨HChen
+ */
+public final class PackedEnhancedLRCData {
+    /**
+     * 所有单词拼接后的文本
+     */
+    @NonNull
+    private final String text;
+    /**
+     * 单词在文本中的起始位置，长度为单词数 + 1，最后一位为文本长度
+     */
+    @NonNull
+    private final int[] offsets;
+    /**
+     * 单词的持续时间 (毫秒)
+     */
+    @NonNull
+    private final int[] delays;
+    /**
+     * 按需创建的对象数组
+     */
+    @Nullable
+    private volatile SuperLyricData.EnhancedLRCData[] array;
+    /**
+     * 缓存的哈希值，数据不可变，只需计算一次
+     */
+    private int hash;
+    /**
+     * 64 位内容指纹缓存，0 表示尚未计算
+     */
+    private long contentHash;
+
+    /**
+     * @param text    所有单词拼接后的文本
+     * @param offsets 单词在文本中的起始位置，长度为单词数 + 1，最后一位为文本长度
+     * @param delays  单词的持续时间 (毫秒)
+     * @throws IllegalArgumentException 数据不合法
+     */
+    public PackedEnhancedLRCData(@NonNull String text, @NonNull int[] offsets, @NonNull int[] delays) {
+        this(text, offsets.clone(), delays.clone(), null);
+    }
+
+    /**
+     * 直接使用传入的数组，调用方需保证之后不再修改
+     *
+     * @param array 对应的对象数组，可为 null
+     */
+    private PackedEnhancedLRCData(@NonNull String text, @NonNull int[] offsets, @NonNull int[] delays,
+                                  @Nullable SuperLyricData.EnhancedLRCData[] array) {
+        if (offsets.length != delays.length + 1)
+            throw new IllegalArgumentException("Offsets length must be delays length + 1!");
+        if (offsets[0] != 0 || offsets[offsets.length - 1] != text.length())
+            throw new IllegalArgumentException("Offsets must start at 0 and end at text length!");
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] < offsets[i - 1])
+                throw new IllegalArgumentException("Offsets must be ascending!");
+        }
+
+        this.text = text;
+        this.offsets = offsets;
+        this.delays = delays;
+        this.array = array;
+    }
+
+    /**
+     * 不复制数组，仅供内部传入新创建的数组
+     */
+    @NonNull
+    static PackedEnhancedLRCData wrap(@NonNull String text, @NonNull int[] offsets, @NonNull int[] delays) {
+        return new PackedEnhancedLRCData(text, offsets, delays, null);
+    }
+
+    /**
+     * 将逐字歌词对象数组转换为紧凑格式
+     */
+    @NonNull
+    public static PackedEnhancedLRCData of(@NonNull SuperLyricData.EnhancedLRCData[] data) {
+        StringBuilder builder = new StringBuilder();
+        int[] offsets = new int[data.length + 1];
+        int[] delays = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            offsets[i] = builder.length();
+            builder.append(data[i].getWord());
+            delays[i] = data[i].getDelay();
+        }
+        offsets[data.length] = builder.length();
+
+        return new PackedEnhancedLRCData(builder.toString(), offsets, delays, data.clone());
+    }
+
+    /**
+     * 单词数量
+     */
+    public int getWordCount() {
+        return delays.length;
+    }
+
+    /**
+     * 所有单词拼接后的文本
+     */
+    @NonNull
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 单词在文本中的起始位置
+     */
+    public int getWordStart(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * 单词在文本中的结束位置 (不包含)
+     */
+    public int getWordEnd(int index) {
+        return offsets[index + 1];
+    }
+
+    /**
+     * 单词的持续时间 (毫秒)
+     */
+    public int getDelay(int index) {
+        return delays[index];
+    }
+
+    /**
+     * 获取单词
+     * <p>
+     * Note：会创建新的字符串，逐帧调用时请优先使用 {@link #getWordStart(int)} 与 {@link #getWordEnd(int)}
+     */
+    @NonNull
+    public String getWord(int index) {
+        return text.substring(offsets[index], offsets[index + 1]);
+    }
+
+    /**
+     * 转换为逐字歌词对象数组，对象仅在首次调用时创建，每次返回数组的副本
+     */
+    @NonNull
+    public SuperLyricData.EnhancedLRCData[] toArray() {
+        SuperLyricData.EnhancedLRCData[] result = array;
+        if (result == null) {
+            result = new SuperLyricData.EnhancedLRCData[delays.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = new SuperLyricData.EnhancedLRCData(getWord(i), delays[i]);
+            }
+            array = result;
+        }
+        return result.clone();
+    }
+
+    /**
+     * 按序列化后的全部数据计算的 64 位内容指纹，用于判断内容是否改变
+     */
+    long contentHash() {
+        long h = contentHash;
+        if (h == 0) {
+            h = Fingerprint.of(this::writeToParcel);
+            contentHash = h;
+        }
+        return h;
+    }
+
+    void writeToParcel(@NonNull Parcel dest) {
+        dest.writeString(text);
+        dest.writeIntArray(offsets);
+        dest.writeIntArray(delays);
+    }
+
+    @NonNull
+    static PackedEnhancedLRCData readFromParcel(@NonNull Parcel in) {
+        String text = in.readString();
+        int[] offsets = in.createIntArray();
+        int[] delays = in.createIntArray();
+        if (text == null || offsets == null || delays == null)
+            throw new IllegalArgumentException("Broken packed enhanced lrc data!");
+        return wrap(text, offsets, delays);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "PackedEnhancedLRCData{" +
+                "text='" + text + '\'' +
+                ", offsets=" + Arrays.toString(offsets) +
+                ", delays=" + Arrays.toString(delays) +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PackedEnhancedLRCData that)) return false;
+        return Objects.equals(text, that.text) &&
+                Arrays.equals(offsets, that.offsets) &&
+                Arrays.equals(delays, that.delays);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(text, Arrays.hashCode(offsets), Arrays.hashCode(delays));
+            hash = h;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,591 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import static android.media.MediaMetadata.METADATA_KEY_ALBUM;
+import static android.media.MediaMetadata.METADATA_KEY_ARTIST;
+import static android.media.MediaMetadata.METADATA_KEY_DURATION;
+import static android.media.MediaMetadata.METADATA_KEY_TITLE;
+
+import android.media.MediaMetadata;
+import android.os.Build;
+import android.os.Parcel;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * 歌词持久化缓存，供接收方使用
+ * <p>
+ * 以软件包名、歌曲名、艺术家、专辑与时长为键保存收到的 {@link SuperLyricTimeline} 与 {@link SuperLyricTracks}，
+ * 接收方进程重启后无需等待下一次推送即可恢复当前歌曲的歌词
+ * <p>
+ * 数据追加写入一个固定大小的内存映射文件，打开时顺序扫描重建内存索引；每条记录带有校验和，写入中途崩溃留下的残缺记录会在下次打开时被丢弃。
+ * 文件写满时按最近使用顺序保留约一半的数据，写入临时文件后整体替换
+ * <p>
+ * 可作为 {@link SuperLyricListener} 添加到 {@link SuperLyricDispatcher}，建议使用后台线程的 Executor
+ *
+ * @author 焕晨HChen
+ */
+public final class SuperLyricCache implements SuperLyricListener, Closeable {
+    private static final String TAG = "SuperLyricCache";
+    /**
+     * 默认文件大小 (字节)
+     */
+    public static final int DEFAULT_MAX_SIZE = 4 * 1024 * 1024;
+    private static final int MIN_SIZE = 64 * 1024;
+
+    private static final int FILE_MAGIC = 0x534C4331;
+    private static final int FILE_VERSION = 2;
+    /**
+     * 文件头：魔数、版本、已提交数据的结尾位置、写入时的系统版本
+     */
+    private static final int HEADER_SIZE = 16;
+    private static final int END_OFFSET = 8;
+    private static final int SDK_OFFSET = 12;
+    private static final int RECORD_MAGIC = 0x534C5245;
+    /**
+     * 记录头：魔数、数据长度、键、包名哈希、内容哈希、校验和
+     */
+    private static final int RECORD_HEADER_SIZE = 36;
+    private static final int FIELD_TIMELINE = 1;
+    private static final int FIELD_TRACKS = 1 << 1;
+
+    @NonNull
+    private final File file;
+    private final int capacity;
+    @Nullable
+    private MappedByteBuffer buffer;
+    private int end;
+    /**
+     * 键到记录的索引，按访问顺序排列，最后一个为最近使用
+     */
+    private final LinkedHashMap<Long, Record> index = new LinkedHashMap<>(64, 0.75f, true);
+    /**
+     * 包名哈希到该软件最近一次写入或读取的键
+     */
+    private final HashMap<Long, Long> latest = new HashMap<>();
+
+    /**
+     * 使用默认大小打开缓存
+     *
+     * @throws IOException 文件打开或映射失败
+     */
+    public SuperLyricCache(@NonNull File file) throws IOException {
+        this(file, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * 打开缓存，文件不存在时创建
+     *
+     * @param maxSize 文件大小 (字节)，不小于 64 KiB
+     * @throws IOException 文件打开或映射失败
+     */
+    public SuperLyricCache(@NonNull File file, int maxSize) throws IOException {
+        if (maxSize < MIN_SIZE) throw new IllegalArgumentException("Max size must be at least " + MIN_SIZE + "!");
+        this.file = file;
+        this.capacity = maxSize;
+        buffer = map(file, capacity);
+        load();
+    }
+
+    /**
+     * 保存数据中的时间轴与多轨歌词，不存在两者时直接忽略
+     * <p>
+     * 同一首歌曲只携带其中一项时会与已缓存的另一项合并，内容未改变时不会写入
+     *
+     * @return 是否写入
+     * @throws IOException 文件已满且整理失败
+     */
+    public boolean put(@NonNull SuperLyricData data) throws IOException {
+        SuperLyricTimeline timeline = data.getTimeline();
+        SuperLyricTracks tracks = data.getTracks();
+        if (timeline == null && tracks == null) return false;
+
+        MediaMetadata metadata = data.getMediaMetadata();
+        Entry entry = new Entry(data.getPackageName(), data.getTitle(), data.getArtist(), data.getAlbum(),
+            metadata != null ? metadata.getLong(METADATA_KEY_DURATION) : 0, timeline, tracks);
+        long key = entry.key();
+        long packageHash = packageHash(entry.packageName);
+
+        synchronized (this) {
+            ensureOpen();
+            latest.put(packageHash, key);
+            Record record = index.get(key);
+            if (record != null && (timeline == null || tracks == null)) {
+                Entry old = decode(record);
+                if (old != null && old.matches(entry)) entry = entry.merge(old);
+            }
+            if (record != null && record.contentHash == entry.contentHash()) return false;
+        }
+
+        byte[] payload = entry.marshall();
+        synchronized (this) {
+            ensureOpen();
+            return append(key, packageHash, entry.contentHash(), payload);
+        }
+    }
+
+    /**
+     * 获取与数据中歌曲信息对应的缓存
+     */
+    @Nullable
+    public Entry get(@NonNull SuperLyricData data) {
+        MediaMetadata metadata = data.getMediaMetadata();
+        return get(data.getPackageName(), data.getTitle(), data.getArtist(), data.getAlbum(),
+            metadata != null ? metadata.getLong(METADATA_KEY_DURATION) : 0);
+    }
+
+    /**
+     * 获取与 MediaMetadata 对应的缓存，可在尚未收到推送时根据 MediaController 的数据恢复歌词
+     */
+    @Nullable
+    public Entry get(@NonNull String packageName, @NonNull MediaMetadata metadata) {
+        return get(packageName, metadata.getString(METADATA_KEY_TITLE), metadata.getString(METADATA_KEY_ARTIST),
+            metadata.getString(METADATA_KEY_ALBUM), metadata.getLong(METADATA_KEY_DURATION));
+    }
+
+    /**
+     * 获取指定歌曲的缓存
+     *
+     * @param duration 歌曲时长 (毫秒)，未知时为 0
+     */
+    @Nullable
+    public synchronized Entry get(@NonNull String packageName, @Nullable String title, @Nullable String artist,
+                                  @Nullable String album, long duration) {
+        if (buffer == null) return null;
+
+        Entry query = new Entry(packageName, title, artist, album, duration, null, null);
+        long key = query.key();
+        Record record = index.get(key);
+        if (record == null) return null;
+
+        Entry entry = decode(record);
+        if (entry == null || !entry.matches(query)) return null;
+        latest.put(packageHash(packageName), key);
+        return entry;
+    }
+
+    /**
+     * 获取指定软件最近一次写入或读取的缓存，可用于重启后立即恢复当前歌曲
+     */
+    @Nullable
+    public synchronized Entry getLatest(@NonNull String packageName) {
+        if (buffer == null) return null;
+
+        Long key = latest.get(packageHash(packageName));
+        Record record = key != null ? index.get(key) : null;
+        if (record == null) return null;
+
+        Entry entry = decode(record);
+        return entry != null && entry.packageName.equals(packageName) ? entry : null;
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public synchronized void clear() {
+        if (buffer == null) return;
+        index.clear();
+        latest.clear();
+        end = HEADER_SIZE;
+        buffer.putInt(END_OFFSET, end);
+    }
+
+    /**
+     * 将已写入的数据同步到磁盘
+     * <p>
+     * 不调用时数据仍会在进程崩溃后保留，仅在系统断电等情况下可能丢失最后几条记录
+     */
+    public synchronized void sync() {
+        if (buffer != null) buffer.force();
+    }
+
+    /**
+     * 同步数据并关闭缓存，之后的写入与读取均被忽略
+     */
+    @Override
+    public synchronized void close() {
+        if (buffer == null) return;
+        buffer.force();
+        buffer = null;
+        index.clear();
+        latest.clear();
+    }
+
+    @Override
+    public void onStop(@NonNull SuperLyricData data) {
+    }
+
+    @Override
+    public void onSuperLyric(@NonNull SuperLyricData data) {
+        try {
+            put(data);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to cache lyric: " + data.getPackageName(), e);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) throw new IOException("Cache is closed!");
+    }
+
+    /**
+     * 读取文件头并扫描全部记录，遇到第一条不完整或校验失败的记录时截断
+     */
+    private void load() {
+        MappedByteBuffer buffer = Objects.requireNonNull(this.buffer);
+        if (buffer.getInt(0) != FILE_MAGIC || buffer.getInt(4) != FILE_VERSION ||
+            buffer.getInt(SDK_OFFSET) != Build.VERSION.SDK_INT) {
+            // Parcel 的格式不保证在不同系统版本之间兼容，系统升级后直接丢弃旧数据
+            writeHeader(buffer);
+            end = HEADER_SIZE;
+            return;
+        }
+
+        int limit = Math.min(Math.max(buffer.getInt(END_OFFSET), HEADER_SIZE), capacity);
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= limit) {
+            if (buffer.getInt(position) != RECORD_MAGIC) break;
+            int length = buffer.getInt(position + 4);
+            if (length < 0 || length > limit - position - RECORD_HEADER_SIZE) break;
+            if (crc(buffer, position + RECORD_HEADER_SIZE, length) != buffer.getInt(position + 32)) break;
+
+            long key = buffer.getLong(position + 8);
+            index.put(key, new Record(position, length, buffer.getLong(position + 24)));
+            latest.put(buffer.getLong(position + 16), key);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        end = position;
+        buffer.putInt(END_OFFSET, end);
+    }
+
+    /**
+     * 在文件末尾追加记录，先写入数据与记录头，最后更新文件头中的结尾位置
+     */
+    private boolean append(long key, long packageHash, long contentHash, @NonNull byte[] payload) throws IOException {
+        int size = RECORD_HEADER_SIZE + payload.length;
+        if (size > (capacity - HEADER_SIZE) / 2) {
+            Log.w(TAG, "Lyric is too large to cache: " + size + " bytes");
+            return false;
+        }
+        if (end + size > capacity) compact();
+
+        MappedByteBuffer buffer = Objects.requireNonNull(this.buffer);
+        int position = end;
+        ByteBuffer target = buffer.duplicate();
+        target.position(position + RECORD_HEADER_SIZE);
+        target.put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(position + 4, payload.length);
+        buffer.putLong(position + 8, key);
+        buffer.putLong(position + 16, packageHash);
+        buffer.putLong(position + 24, contentHash);
+        buffer.putInt(position + 32, (int) crc.getValue());
+        buffer.putInt(position, RECORD_MAGIC);
+
+        end = position + size;
+        buffer.putInt(END_OFFSET, end);
+        index.put(key, new Record(position, payload.length, contentHash));
+        latest.put(packageHash, key);
+        return true;
+    }
+
+    /**
+     * 按最近使用顺序保留不超过一半容量的记录，写入临时文件后替换原文件
+     */
+    private void compact() throws IOException {
+        MappedByteBuffer buffer = Objects.requireNonNull(this.buffer);
+        ArrayList<Map.Entry<Long, Record>> kept = new ArrayList<>();
+        ArrayList<Map.Entry<Long, Record>> records = new ArrayList<>(index.entrySet());
+        int budget = (capacity - HEADER_SIZE) / 2;
+        for (int i = records.size() - 1; i >= 0; i--) {
+            Record record = records.get(i).getValue();
+            int size = RECORD_HEADER_SIZE + record.length;
+            if (size > budget) break;
+            budget -= size;
+            kept.add(records.get(i));
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        MappedByteBuffer target = map(temp, capacity);
+        writeHeader(target);
+        LinkedHashMap<Long, Record> compacted = new LinkedHashMap<>(64, 0.75f, true);
+        int position = HEADER_SIZE;
+        // 从最久未使用的记录开始写入，重新打开时扫描得到的顺序与当前一致
+        for (int i = kept.size() - 1; i >= 0; i--) {
+            Record record = kept.get(i).getValue();
+            int size = RECORD_HEADER_SIZE + record.length;
+            ByteBuffer source = buffer.duplicate();
+            source.position(record.offset).limit(record.offset + size);
+            ByteBuffer dest = target.duplicate();
+            dest.position(position);
+            dest.put(source);
+            compacted.put(kept.get(i).getKey(), new Record(position, record.length, record.contentHash));
+            position += size;
+        }
+        target.putInt(END_OFFSET, position);
+        target.force();
+        if (!temp.renameTo(file)) throw new IOException("Failed to replace cache file: " + file);
+
+        this.buffer = target;
+        end = position;
+        index.clear();
+        index.putAll(compacted);
+        Iterator<Long> iterator = latest.values().iterator();
+        while (iterator.hasNext()) {
+            if (!index.containsKey(iterator.next())) iterator.remove();
+        }
+    }
+
+    @Nullable
+    private Entry decode(@NonNull Record record) {
+        MappedByteBuffer buffer = Objects.requireNonNull(this.buffer);
+        byte[] payload = new byte[record.length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(record.offset + RECORD_HEADER_SIZE);
+        source.get(payload);
+
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.unmarshall(payload, 0, payload.length);
+            parcel.setDataPosition(0);
+            return Entry.readFromParcel(parcel);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Broken cache record at " + record.offset, e);
+            return null;
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @NonNull
+    private static MappedByteBuffer map(@NonNull File file, int capacity) throws IOException {
+        // 映射在文件关闭后依然有效
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() != capacity) raf.setLength(capacity);
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    private static void writeHeader(@NonNull MappedByteBuffer buffer) {
+        buffer.putInt(0, FILE_MAGIC);
+        buffer.putInt(4, FILE_VERSION);
+        buffer.putInt(END_OFFSET, HEADER_SIZE);
+        buffer.putInt(SDK_OFFSET, Build.VERSION.SDK_INT);
+    }
+
+    private static int crc(@NonNull MappedByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset);
+        source.get(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static long packageHash(@NonNull String packageName) {
+        return Fingerprint.finish(Fingerprint.mix(Fingerprint.SEED, packageName));
+    }
+
+    /**
+     * 记录在文件中的位置
+     */
+    private static final class Record {
+        private final int offset;
+        private final int length;
+        private final long contentHash;
+
+        private Record(int offset, int length, long contentHash) {
+            this.offset = offset;
+            this.length = length;
+            this.contentHash = contentHash;
+        }
+    }
+
+    /**
+     * 一首歌曲的缓存
+     */
+    public static final class Entry {
+        @NonNull
+        private final String packageName;
+        @NonNull
+        private final String title;
+        @NonNull
+        private final String artist;
+        @NonNull
+        private final String album;
+        private final long duration;
+        @Nullable
+        private final SuperLyricTimeline timeline;
+        @Nullable
+        private final SuperLyricTracks tracks;
+
+        private Entry(@NonNull String packageName, @Nullable String title, @Nullable String artist,
+                      @Nullable String album, long duration,
+                      @Nullable SuperLyricTimeline timeline, @Nullable SuperLyricTracks tracks) {
+            // 与 SuperLyricData 保持一致，缺失的歌曲信息记为 Unknown
+            this.packageName = packageName;
+            this.title = title != null ? title : "Unknown";
+            this.artist = artist != null ? artist : "Unknown";
+            this.album = album != null ? album : "Unknown";
+            this.duration = duration;
+            this.timeline = timeline;
+            this.tracks = tracks;
+        }
+
+        @NonNull
+        public String getPackageName() {
+            return packageName;
+        }
+
+        @NonNull
+        public String getTitle() {
+            return title;
+        }
+
+        @NonNull
+        public String getArtist() {
+            return artist;
+        }
+
+        @NonNull
+        public String getAlbum() {
+            return album;
+        }
+
+        /**
+         * 歌曲时长 (毫秒)，未知时为 0
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        @Nullable
+        public SuperLyricTimeline getTimeline() {
+            return timeline;
+        }
+
+        @Nullable
+        public SuperLyricTracks getTracks() {
+            return tracks;
+        }
+
+        private long key() {
+            long hash = Fingerprint.SEED;
+            hash = Fingerprint.mix(hash, packageName);
+            hash = Fingerprint.mix(hash, title);
+            hash = Fingerprint.mix(hash, artist);
+            hash = Fingerprint.mix(hash, album);
+            hash = Fingerprint.mix(hash, duration);
+            return Fingerprint.finish(hash);
+        }
+
+        /**
+         * 内容哈希，由时间轴与多轨歌词序列化后的 64 位内容指纹组成，逐字时间等任何改变都会重新写入
+         */
+        private long contentHash() {
+            long hash = Fingerprint.mix(Fingerprint.SEED, timeline != null ? timeline.contentHash() : 0);
+            return Fingerprint.finish(Fingerprint.mix(hash, tracks != null ? tracks.contentHash() : 0));
+        }
+
+        /**
+         * 歌曲信息是否相同，用于排除键的哈希冲突
+         */
+        private boolean matches(@NonNull Entry that) {
+            return duration == that.duration &&
+                    packageName.equals(that.packageName) &&
+                    title.equals(that.title) &&
+                    artist.equals(that.artist) &&
+                    album.equals(that.album);
+        }
+
+        /**
+         * 用已缓存的数据补全缺失的时间轴或多轨歌词
+         */
+        @NonNull
+        private Entry merge(@NonNull Entry old) {
+            return new Entry(packageName, title, artist, album, duration,
+                timeline != null ? timeline : old.timeline, tracks != null ? tracks : old.tracks);
+        }
+
+        @NonNull
+        private byte[] marshall() {
+            Parcel parcel = Parcel.obtain();
+            try {
+                parcel.writeString(packageName);
+                parcel.writeString(title);
+                parcel.writeString(artist);
+                parcel.writeString(album);
+                parcel.writeLong(duration);
+                parcel.writeInt((timeline != null ? FIELD_TIMELINE : 0) | (tracks != null ? FIELD_TRACKS : 0));
+                if (timeline != null) timeline.writeToParcel(parcel);
+                if (tracks != null) tracks.writeToParcel(parcel);
+                return parcel.marshall();
+            } finally {
+                parcel.recycle();
+            }
+        }
+
+        @NonNull
+        private static Entry readFromParcel(@NonNull Parcel in) {
+            String packageName = Objects.requireNonNull(in.readString());
+            String title = in.readString();
+            String artist = in.readString();
+            String album = in.readString();
+            long duration = in.readLong();
+            int fields = in.readInt();
+            SuperLyricTimeline timeline = (fields & FIELD_TIMELINE) != 0 ? SuperLyricTimeline.readFromParcel(in) : null;
+            SuperLyricTracks tracks = (fields & FIELD_TRACKS) != 0 ? SuperLyricTracks.readFromParcel(in) : null;
+            return new Entry(packageName, title, artist, album, duration, timeline, tracks);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "packageName='" + packageName + '\'' +
+                    ", title='" + title + '\'' +
+                    ", artist='" + artist + '\'' +
+                    ", album='" + album + '\'' +
+                    ", duration=" + duration +
+                    ", timeline=" + timeline +
+                    ", tracks=" + tracks +
+                    '}';
+        }
+    }
+}
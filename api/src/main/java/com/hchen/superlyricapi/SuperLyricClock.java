@@ -0,0 +1,310 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.media.MediaMetadata;
+import android.media.session.PlaybackState;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * 歌词时钟，供接收方使用
+ * <p>
+ * 根据 PlaybackState 推算当前播放进度，并在到达下一行或下一个单词的时间点时回调；
+ * 同一时刻只存在一个定时任务，不会周期性轮询
+ * <p>
+ * 存在 {@link SuperLyricTimeline} 时使用时间轴中的绝对时间，否则以收到歌词时的进度为该行的开始时间，
+ * 并根据 Delay 与逐字歌词的持续时间推算各个时间点
+ * <p>
+ * 时间轴通常只在切换歌曲时发送一次，因此会一直保留到收到新的时间轴或歌曲改变 (歌曲名、艺术家或时长改变) 为止；
+ * 时间轴中的时间需要根据 PlaybackState 推算，未收到 PlaybackState 时暂不使用
+ * <p>
+ * 所有方法均可在任意线程调用，回调在指定的 Handler 线程上执行
+ *
+ * @author 焕晨HChen
+ */
+public class SuperLyricClock {
+    @NonNull
+    private final Handler handler;
+    @NonNull
+    private final Callback callback;
+    private final Runnable tick = this::tick;
+    /**
+     * 未收到 PlaybackState 时，以此时间为进度起点
+     */
+    private final long origin = SystemClock.elapsedRealtime();
+
+    @Nullable
+    private PlaybackState playbackState;
+    private long basePosition = 0;
+    private long baseTime = origin;
+    private float speed = 1f;
+    private boolean playing = true;
+
+    @Nullable
+    private SuperLyricTimeline timeline;
+    /**
+     * 当前歌曲，用于判断是否需要丢弃时间轴
+     */
+    @Nullable
+    private String title;
+    @Nullable
+    private String artist;
+    private long duration = -1;
+    @Nullable
+    private WordProgressIndex words;
+    private long lineStart = 0;
+    private long lineEnd = Long.MAX_VALUE;
+    private boolean hasLine = false;
+
+    private int line = -1;
+    private int word = -1;
+    private boolean released = false;
+
+    /**
+     * @param handler  执行回调的线程
+     * @param callback 回调
+     */
+    public SuperLyricClock(@NonNull Handler handler, @NonNull Callback callback) {
+        this.handler = handler;
+        this.callback = callback;
+    }
+
+    /**
+     * 歌曲数据更改
+     *
+     * @see SuperLyricListener#onSuperLyric(SuperLyricData)
+     */
+    public void onSuperLyric(@NonNull SuperLyricData data) {
+        synchronized (this) {
+            if (data.isExistPlaybackState()) applyPlaybackState(data.getPlaybackState());
+
+            SuperLyricTimeline newTimeline = data.getTimeline();
+            if (isSongChanged(data) || newTimeline != null) timeline = newTimeline;
+            if (!isTimelineActive() && data.isExistLyric()) {
+                lineStart = position(SystemClock.elapsedRealtime());
+                PackedEnhancedLRCData packed = data.getPackedEnhancedLRCData();
+                words = packed != null ? WordProgressIndex.of(packed) : null;
+                int duration = data.getDelay() > 0 ? data.getDelay() : words != null ? words.getDuration() : 0;
+                lineEnd = duration > 0 ? lineStart + duration : Long.MAX_VALUE;
+                hasLine = true;
+                // 新的一行，即使行下标不变也需要回调
+                line = -1;
+                word = -1;
+            }
+        }
+        reschedule();
+    }
+
+    /**
+     * 歌曲暂停
+     *
+     * @see SuperLyricListener#onStop(SuperLyricData)
+     */
+    public void onStop(@NonNull SuperLyricData data) {
+        synchronized (this) {
+            if (data.isExistPlaybackState()) applyPlaybackState(data.getPlaybackState());
+            else {
+                basePosition = position(SystemClock.elapsedRealtime());
+                baseTime = SystemClock.elapsedRealtime();
+            }
+            playing = false;
+        }
+        reschedule();
+    }
+
+    /**
+     * 更新播放状态，用于处理暂停、跳转与倍速
+     */
+    public void setPlaybackState(@NonNull PlaybackState state) {
+        synchronized (this) {
+            applyPlaybackState(state);
+        }
+        reschedule();
+    }
+
+    /**
+     * 获取推算出的当前播放进度 (毫秒)
+     */
+    public synchronized long getPosition() {
+        return position(SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * 当前歌词行，含义同 {@link Callback#onLineChanged(int)}
+     */
+    public synchronized int getLine() {
+        return line;
+    }
+
+    /**
+     * 当前单词，含义同 {@link Callback#onWordChanged(int, int)}
+     */
+    public synchronized int getWord() {
+        return word;
+    }
+
+    /**
+     * 释放时钟，之后不会再回调
+     */
+    public void release() {
+        synchronized (this) {
+            released = true;
+        }
+        handler.removeCallbacks(tick);
+    }
+
+    /**
+     * 判断歌曲是否改变，并记录当前歌曲；未携带 MediaMetadata 的推送视为同一首歌曲
+     * <p>
+     * 直接读取 MediaMetadata，{@link SuperLyricData#getTitle()} 等方法在缺少数据时会返回 "Unknown"，无法区分
+     */
+    private boolean isSongChanged(@NonNull SuperLyricData data) {
+        if (!data.isExistMediaMetadata()) return false;
+
+        MediaMetadata metadata = data.getMediaMetadata();
+        String newTitle = metadata.getString(MediaMetadata.METADATA_KEY_TITLE);
+        String newArtist = metadata.getString(MediaMetadata.METADATA_KEY_ARTIST);
+        long newDuration = -1;
+        if (metadata.containsKey(MediaMetadata.METADATA_KEY_DURATION))
+            newDuration = metadata.getLong(MediaMetadata.METADATA_KEY_DURATION);
+
+        boolean changed = !Objects.equals(title, newTitle) || !Objects.equals(artist, newArtist) ||
+                (newDuration >= 0 && duration >= 0 && newDuration != duration);
+        title = newTitle;
+        artist = newArtist;
+        if (newDuration >= 0) duration = newDuration;
+        return changed;
+    }
+
+    private boolean isTimelineActive() {
+        return timeline != null && playbackState != null;
+    }
+
+    private void applyPlaybackState(@NonNull PlaybackState state) {
+        playbackState = state;
+        long now = SystemClock.elapsedRealtime();
+        basePosition = Math.max(state.getPosition(), 0);
+        baseTime = state.getLastPositionUpdateTime() > 0 ? state.getLastPositionUpdateTime() : now;
+        int s = state.getState();
+        playing = s == PlaybackState.STATE_PLAYING || s == PlaybackState.STATE_FAST_FORWARDING || s == PlaybackState.STATE_REWINDING;
+        speed = state.getPlaybackSpeed();
+        if (s == PlaybackState.STATE_PLAYING && speed == 0) speed = 1f;
+    }
+
+    private long position(long now) {
+        if (!playing) return basePosition;
+        return Math.max(basePosition + (long) ((now - baseTime) * speed), 0);
+    }
+
+    private void reschedule() {
+        handler.removeCallbacks(tick);
+        handler.post(tick);
+    }
+
+    private void tick() {
+        int oldLine;
+        int oldWord;
+        int newLine;
+        int newWord;
+        synchronized (this) {
+            if (released) return;
+
+            oldLine = line;
+            oldWord = word;
+            long position = position(SystemClock.elapsedRealtime());
+            long next = evaluate(position);
+            newLine = line;
+            newWord = word;
+
+            // 始终只保留一个定时任务
+            handler.removeCallbacks(tick);
+            if (playing && speed > 0 && next != Long.MAX_VALUE) {
+                long delay = (long) Math.ceil((next - position) / speed);
+                handler.postDelayed(tick, Math.max(delay, 1));
+            }
+        }
+
+        if (newLine != oldLine) callback.onLineChanged(newLine);
+        if (newLine != oldLine || newWord != oldWord) callback.onWordChanged(newLine, newWord);
+    }
+
+    /**
+     * 计算当前行与单词
+     *
+     * @return 下一个时间点，不存在时返回 {@link Long#MAX_VALUE}
+     */
+    private long evaluate(long position) {
+        long next = Long.MAX_VALUE;
+        if (isTimelineActive()) {
+            line = timeline.indexOfLine(position);
+            int lines = timeline.getLineCount();
+            if (line + 1 < lines) next = timeline.getLineTime(line + 1);
+
+            word = -1;
+            if (line >= 0 && timeline.isExistWords()) {
+                int first = timeline.getFirstWord(line);
+                int index = timeline.indexOfWord(line, position);
+                if (index >= 0) word = index - first;
+
+                int nextWord = index >= 0 ? index + 1 : first;
+                if (nextWord < first + timeline.getWordCount(line))
+                    next = Math.min(next, timeline.getWordTime(nextWord));
+            }
+            return next;
+        }
+
+        if (!hasLine || position >= lineEnd) {
+            line = -1;
+            word = -1;
+            return next;
+        }
+
+        line = position >= lineStart ? 0 : -1;
+        next = line == 0 ? lineEnd : lineStart;
+        if (line == 0 && words != null) {
+            // 时间通常单调递增，以上一次的单词为起点向后推进
+            word = words.indexOf(position - lineStart, word);
+            if (word + 1 < words.getWordCount()) next = Math.min(next, lineStart + words.getWordTime(word + 1));
+        } else word = -1;
+        return next;
+    }
+
+    public interface Callback {
+        /**
+         * 当前歌词行改变
+         *
+         * @param line 使用时间轴时为时间轴中的行下标，否则 0 表示最近一次推送的歌词；-1 表示尚未开始或已经结束
+         */
+        void onLineChanged(int line);
+
+        /**
+         * 当前单词改变
+         *
+         * @param line 当前歌词行
+         * @param word 单词在行内的下标，-1 表示尚未开始或不存在逐字歌词
+         */
+        void onWordChanged(int line, int word);
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 推送合并器，供音乐软件使用
+ * <p>
+ * 同一软件在时间窗口内的多次 onSuperLyric 只发送最新的一次，第一次推送会立即发送；时间窗口按软件分别计算，互不影响；
+ * onStop 立即发送，并丢弃尚未发送的 onSuperLyric
+ * <p>
+ * 可在任意线程调用，调用方不会被阻塞，实际推送在后台线程上按调用顺序执行
+ *
+ * @author 焕晨HChen
+ */
+public class SuperLyricCoalescer {
+    /**
+     * 默认时间窗口 (毫秒)，约为一帧
+     */
+    public static final long DEFAULT_WINDOW = 16;
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "SuperLyricCoalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final SuperLyricListener PUSH = new SuperLyricListener() {
+        @Override
+        public void onStop(@NonNull SuperLyricData data) {
+            SuperLyricPush.onStop(data);
+        }
+
+        @Override
+        public void onSuperLyric(@NonNull SuperLyricData data) {
+            SuperLyricPush.onSuperLyric(data);
+        }
+    };
+
+    private final long window;
+    @NonNull
+    private final SuperLyricListener target;
+    /**
+     * 有序事件队列，元素为 {@link Stop} 或待发送歌词的槽位
+     */
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * 各软件当前的歌词槽位，槽位发送前新的歌词会直接覆盖其中的数据
+     */
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable drain = this::drain;
+    private final Runnable delayedDrain = () -> {
+        // 延迟任务已开始执行，清除记录以便本次 drain 能重新安排下一次唤醒
+        delayed = null;
+        delayedTime = Long.MAX_VALUE;
+        drain();
+    };
+    /**
+     * 以下字段只在后台线程上读写
+     * <p>
+     * 各软件最近一次发送歌词的时间
+     */
+    private final HashMap<String, Long> lastLyricTimes = new HashMap<>();
+    @Nullable
+    private ScheduledFuture<?> delayed;
+    private long delayedTime = Long.MAX_VALUE;
+
+    public SuperLyricCoalescer() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param window 时间窗口 (毫秒)，例如 16 或 50
+     */
+    public SuperLyricCoalescer(long window) {
+        this(window, PUSH);
+    }
+
+    /**
+     * @param target 实际发送的目标，默认为 {@link SuperLyricPush}
+     */
+    SuperLyricCoalescer(long window, @NonNull SuperLyricListener target) {
+        if (window < 0) throw new IllegalArgumentException("Window must not be negative!");
+        this.window = window;
+        this.target = target;
+    }
+
+    /**
+     * 歌曲暂停，立即发送并丢弃同一软件尚未发送的歌词
+     *
+     * @see SuperLyricPush#onStop(SuperLyricData)
+     */
+    public void onStop(@NonNull SuperLyricData data) {
+        // 封存当前槽位，之后的歌词使用新的槽位排在 onStop 之后
+        Slot slot = slots.remove(data.getPackageName());
+        if (slot != null && slot.getAndSet(null) != null) SuperLyricMetrics.onCoalesced(data.getPackageName());
+
+        queue.offer(new Stop(data));
+        scheduler.execute(drain);
+    }
+
+    /**
+     * 歌曲数据更改，时间窗口内只发送最新的一次
+     *
+     * @see SuperLyricPush#onSuperLyric(SuperLyricData)
+     */
+    public void onSuperLyric(@NonNull SuperLyricData data) {
+        String packageName = data.getPackageName();
+        Slot slot = slots.get(packageName);
+        if (slot == null) {
+            Slot created = new Slot(packageName);
+            slot = slots.putIfAbsent(packageName, created);
+            if (slot == null) slot = created;
+        }
+
+        if (slot.getAndSet(data) != null) { // 覆盖尚未发送的旧歌词
+            SuperLyricMetrics.onCoalesced(packageName);
+            return;
+        }
+        queue.offer(slot);
+        if (scheduled.compareAndSet(false, true)) scheduler.execute(drain);
+    }
+
+    /**
+     * 立即发送全部尚未发送的数据，不等待时间窗口
+     */
+    public void flush() {
+        scheduler.execute(() -> {
+            lastLyricTimes.clear();
+            drain();
+        });
+    }
+
+    private void drain() {
+        scheduled.set(false);
+        long now = SystemClock.uptimeMillis();
+        long wakeTime = Long.MAX_VALUE;
+        // 仍在时间窗口内的软件，其之后的事件需继续等待以保持顺序，其他软件的事件不受影响
+        HashSet<String> waiting = null;
+        Iterator<Object> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Object event = iterator.next();
+            if (event instanceof Stop stop) {
+                if (waiting != null && waiting.contains(stop.data.getPackageName())) continue;
+                iterator.remove();
+                target.onStop(stop.data);
+                continue;
+            }
+
+            Slot slot = (Slot) event;
+            if (slot.get() == null) { // 已被 onStop 丢弃
+                iterator.remove();
+                continue;
+            }
+
+            Long lastLyricTime = lastLyricTimes.get(slot.packageName);
+            boolean blocked = waiting != null && waiting.contains(slot.packageName);
+            if (blocked || (lastLyricTime != null && now - lastLyricTime < window)) {
+                if (waiting == null) waiting = new HashSet<>();
+                waiting.add(slot.packageName);
+                if (lastLyricTime != null) wakeTime = Math.min(wakeTime, lastLyricTime + window);
+                continue;
+            }
+
+            iterator.remove();
+            SuperLyricData data = slot.getAndSet(null);
+            if (data == null) continue;
+
+            lastLyricTimes.put(slot.packageName, now);
+            target.onSuperLyric(data);
+        }
+
+        // 时间窗口已结束的软件无需再记录
+        lastLyricTimes.values().removeIf(time -> now - time >= window);
+        if (wakeTime == Long.MAX_VALUE) return;
+        if (delayed == null || wakeTime < delayedTime) {
+            if (delayed != null) delayed.cancel(false);
+            delayedTime = wakeTime;
+            delayed = scheduler.schedule(delayedDrain, wakeTime - now, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 单个软件的歌词槽位
+     */
+    private static final class Slot extends AtomicReference<SuperLyricData> {
+        @NonNull
+        private final String packageName;
+
+        private Slot(@NonNull String packageName) {
+            this.packageName = packageName;
+        }
+    }
+
+    private static final class Stop {
+        @NonNull
+        private final SuperLyricData data;
+
+        private Stop(@NonNull SuperLyricData data) {
+            this.data = data;
+        }
+    }
+}
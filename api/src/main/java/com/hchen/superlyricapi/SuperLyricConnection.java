@@ -0,0 +1,353 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.RemoteException;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 通过 Binder 直接连接系统端的注册中心
+ * <p>
+ * 注册中心的 Binder 会被缓存并监听死亡，系统端重启后自动重新连接并重新注册全部回调；系统端尚未启动时会等待其启动
+ * <p>
+ * 所有方法均返回带超时的 CompletableFuture，可在任意线程调用，无需 Looper
+ * <p>
+ * 系统端版本过低、不支持 Binder 注册时，自动回退到广播注册，此时无法确认注册结果
+ *
+ * @author 焕晨HChen
+ * @see ISuperLyricRegistry
+ */
+public final class SuperLyricConnection {
+    private static final String TAG = "SuperLyricConnection";
+    /**
+     * 默认超时时间 (毫秒)
+     */
+    public static final long DEFAULT_TIMEOUT = 3000;
+    private static final long MIN_RETRY_DELAY = 200;
+    private static final long MAX_RETRY_DELAY = 30_000;
+
+    private static final ThreadFactory threadFactory = r -> {
+        Thread thread = new Thread(r, TAG);
+        thread.setDaemon(true);
+        return thread;
+    };
+    /**
+     * 所有连接状态只在此线程上读写，无需加锁
+     */
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(threadFactory);
+    /**
+     * 负责超时与重试计时，不会被阻塞的 Binder 调用拖延
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    private static final IBinder.DeathRecipient deathRecipient = () -> worker.execute(SuperLyricConnection::onRegistryDied);
+
+    private static final int HUB_ABSENT = 0;
+    private static final int HUB_LEGACY = 1;
+    private static final int HUB_CONNECTED = 2;
+
+    @Nullable
+    private static Context context;
+    @Nullable
+    private static ISuperLyricRegistry registry;
+    @Nullable
+    private static ISuperLyric controller;
+    /**
+     * 已注册的回调，系统端重启后重新注册
+     */
+    private static final Map<IBinder, ISuperLyricAsync.Stub> callbacks = new LinkedHashMap<>();
+    /**
+     * 等待系统端启动的请求
+     */
+    private static final Map<IBinder, CompletableFuture<Boolean>> pendingCallbacks = new HashMap<>();
+    private static final List<CompletableFuture<ISuperLyric>> pendingControllers = new ArrayList<>();
+    private static boolean retrying = false;
+    private static int retryCount = 0;
+
+    private SuperLyricConnection() {
+    }
+
+    /**
+     * 注册 SuperLyric 异步回调，使用默认超时时间
+     *
+     * @see #registerSuperLyric(Context, ISuperLyricAsync.Stub, long)
+     */
+    @NonNull
+    public static CompletableFuture<Boolean> registerSuperLyric(@NonNull Context context, @NonNull ISuperLyricAsync.Stub superLyric) {
+        return registerSuperLyric(context, superLyric, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * 注册 SuperLyric 异步回调
+     * <p>
+     * 超时后回调仍会保留，系统端启动后依然会完成注册
+     *
+     * @param timeout 超时时间 (毫秒)
+     * @return 注册结果，true 表示系统端已确认，false 表示已回退到广播注册；超时时以 {@link TimeoutException} 结束
+     */
+    @NonNull
+    public static CompletableFuture<Boolean> registerSuperLyric(@NonNull Context context, @NonNull ISuperLyricAsync.Stub superLyric, long timeout) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        Context appContext = applicationContext(context);
+        worker.execute(() -> {
+            SuperLyricConnection.context = appContext;
+            callbacks.put(superLyric.asBinder(), superLyric);
+            try {
+                switch (connect()) {
+                    case HUB_CONNECTED -> {
+                        registry.registerSuperLyric(superLyric);
+                        future.complete(true);
+                    }
+                    case HUB_LEGACY -> {
+                        SuperLyricTool.registerSuperLyric(appContext, superLyric);
+                        future.complete(false);
+                    }
+                    default -> {
+                        pendingCallbacks.put(superLyric.asBinder(), future);
+                        scheduleRetry();
+                    }
+                }
+            } catch (RemoteException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return withTimeout(future, timeout);
+    }
+
+    /**
+     * 注销 SuperLyric 异步回调，使用默认超时时间
+     *
+     * @see #unregisterSuperLyric(Context, ISuperLyricAsync.Stub, long)
+     */
+    @NonNull
+    public static CompletableFuture<Boolean> unregisterSuperLyric(@NonNull Context context, @NonNull ISuperLyricAsync.Stub superLyric) {
+        return unregisterSuperLyric(context, superLyric, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * 注销 SuperLyric 异步回调
+     *
+     * @param timeout 超时时间 (毫秒)
+     * @return 注销结果，true 表示系统端已确认，false 表示已回退到广播注销或系统端未启动
+     */
+    @NonNull
+    public static CompletableFuture<Boolean> unregisterSuperLyric(@NonNull Context context, @NonNull ISuperLyricAsync.Stub superLyric, long timeout) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        Context appContext = applicationContext(context);
+        worker.execute(() -> {
+            callbacks.remove(superLyric.asBinder());
+            CompletableFuture<Boolean> pending = pendingCallbacks.remove(superLyric.asBinder());
+            if (pending != null) pending.cancel(false);
+            try {
+                switch (connect()) {
+                    case HUB_CONNECTED -> {
+                        registry.unregisterSuperLyric(superLyric);
+                        future.complete(true);
+                    }
+                    case HUB_LEGACY -> {
+                        SuperLyricTool.unregisterSuperLyric(appContext, superLyric);
+                        future.complete(false);
+                    }
+                    default -> future.complete(false);
+                }
+            } catch (RemoteException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return withTimeout(future, timeout);
+    }
+
+    /**
+     * 注册歌词控制器，使用默认超时时间
+     *
+     * @see #registerController(Context, long)
+     */
+    @NonNull
+    public static CompletableFuture<ISuperLyric> registerController(@NonNull Context context) {
+        return registerController(context, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * 注册歌词控制器
+     * <p>
+     * 控制器会被缓存，系统端重启后缓存失效，请重新调用此方法获取新的控制器
+     * <p>
+     * Note：受保护的 API，非信任软件将以 {@link SecurityException} 结束
+     *
+     * @param timeout 超时时间 (毫秒)
+     * @see SuperLyricPush#registerSuperLyricController(Context, java.util.function.Consumer)
+     */
+    @NonNull
+    public static CompletableFuture<ISuperLyric> registerController(@NonNull Context context, long timeout) {
+        CompletableFuture<ISuperLyric> future = new CompletableFuture<>();
+        Context appContext = applicationContext(context);
+        worker.execute(() -> {
+            SuperLyricConnection.context = appContext;
+            try {
+                switch (connect()) {
+                    case HUB_CONNECTED -> completeController(future);
+                    case HUB_LEGACY -> requestLegacyController(future);
+                    default -> {
+                        pendingControllers.add(future);
+                        scheduleRetry();
+                    }
+                }
+            } catch (RemoteException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return withTimeout(future, timeout);
+    }
+
+    private static void completeController(@NonNull CompletableFuture<ISuperLyric> future) throws RemoteException {
+        if (controller == null) controller = registry.registerController(context.getPackageName());
+        if (controller != null) future.complete(controller);
+        else future.completeExceptionally(new SecurityException("Untrusted app: " + context.getPackageName()));
+    }
+
+    /**
+     * 旧版本系统端只能通过 Messenger 获取控制器，回调需要 Looper，因此在主线程发起
+     */
+    private static void requestLegacyController(@NonNull CompletableFuture<ISuperLyric> future) {
+        Context context = SuperLyricConnection.context;
+        new Handler(Looper.getMainLooper()).post(() ->
+            SuperLyricPush.registerSuperLyricController(context, future::complete)
+        );
+    }
+
+    /**
+     * 连接注册中心，仅在 worker 线程调用
+     */
+    private static int connect() throws RemoteException {
+        if (registry != null) {
+            if (registry.asBinder().isBinderAlive()) return HUB_CONNECTED;
+            onRegistryDied();
+        }
+
+        Intent intent = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (intent == null) return HUB_ABSENT;
+        Bundle bundle = intent.getBundleExtra("super_lyric_info");
+        if (bundle == null) return HUB_ABSENT;
+        IBinder binder = bundle.getBinder("super_lyric_registry");
+        if (binder == null) return HUB_LEGACY;
+        if (!binder.isBinderAlive()) return HUB_ABSENT; // 系统端正在重启，广播中仍是旧的 Binder
+
+        binder.linkToDeath(deathRecipient, 0);
+        registry = ISuperLyricRegistry.Stub.asInterface(binder);
+        return HUB_CONNECTED;
+    }
+
+    private static void onRegistryDied() {
+        if (registry != null) registry.asBinder().unlinkToDeath(deathRecipient, 0);
+        registry = null;
+        controller = null;
+        if (!callbacks.isEmpty()) scheduleRetry();
+    }
+
+    private static void scheduleRetry() {
+        if (retrying) return;
+        retrying = true;
+
+        long delay = Math.min(MIN_RETRY_DELAY << Math.min(retryCount++, 10), MAX_RETRY_DELAY);
+        scheduler.schedule(() -> worker.execute(SuperLyricConnection::retry), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static void retry() {
+        retrying = false;
+        pendingControllers.removeIf(CompletableFuture::isDone);
+        if (callbacks.isEmpty() && pendingControllers.isEmpty()) {
+            retryCount = 0;
+            return;
+        }
+
+        int state;
+        try {
+            state = connect();
+        } catch (RemoteException | RuntimeException e) {
+            Log.w(TAG, "Failed to connect registry!", e);
+            state = HUB_ABSENT;
+        }
+        if (state == HUB_ABSENT) {
+            scheduleRetry();
+            return;
+        }
+        retryCount = 0;
+
+        for (ISuperLyricAsync.Stub superLyric : callbacks.values()) {
+            CompletableFuture<Boolean> pending = pendingCallbacks.remove(superLyric.asBinder());
+            try {
+                if (state == HUB_CONNECTED) registry.registerSuperLyric(superLyric);
+                else SuperLyricTool.registerSuperLyric(context, superLyric);
+                if (pending != null) pending.complete(state == HUB_CONNECTED);
+            } catch (RemoteException | RuntimeException e) {
+                Log.w(TAG, "Failed to register: " + superLyric, e);
+                if (pending != null) pending.completeExceptionally(e);
+            }
+        }
+
+        for (CompletableFuture<ISuperLyric> pending : pendingControllers) {
+            try {
+                if (state == HUB_CONNECTED) completeController(pending);
+                else requestLegacyController(pending);
+            } catch (RemoteException | RuntimeException e) {
+                pending.completeExceptionally(e);
+            }
+        }
+        pendingControllers.clear();
+    }
+
+    @NonNull
+    private static <T> CompletableFuture<T> withTimeout(@NonNull CompletableFuture<T> future, long timeout) {
+        ScheduledFuture<?> task = scheduler.schedule(
+            () -> future.completeExceptionally(new TimeoutException("Timed out after " + timeout + " ms")),
+            timeout, TimeUnit.MILLISECONDS
+        );
+        future.whenComplete((result, throwable) -> task.cancel(false));
+        return future;
+    }
+
+    @NonNull
+    private static Context applicationContext(@NonNull Context context) {
+        Context appContext = context.getApplicationContext();
+        return appContext != null ? appContext : context;
+    }
+}
@@ -19,7 +19,11 @@
 package com.hchen.superlyricapi;
 
 import static android.media.MediaMetadata.METADATA_KEY_ALBUM;
+import static android.media.MediaMetadata.METADATA_KEY_ALBUM_ART;
+import static android.media.MediaMetadata.METADATA_KEY_ART;
 import static android.media.MediaMetadata.METADATA_KEY_ARTIST;
+import static android.media.MediaMetadata.METADATA_KEY_DISPLAY_ICON;
+import static android.media.MediaMetadata.METADATA_KEY_DURATION;
 import static android.media.MediaMetadata.METADATA_KEY_TITLE;
 
 import android.media.MediaMetadata;
@@ -28,12 +32,25 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.SharedMemory;
+import android.os.SystemClock;
+import android.system.ErrnoException;
+import android.system.OsConstants;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * 歌曲数据
@@ -89,32 +106,312 @@ public class SuperLyricData implements Parcelable {
     private PlaybackState playbackState;
     /**
      * 自定义附加数据
+     * <p>
+     * Note：仅用于存放第三方自定义数据，翻译、对唱、逐字歌词等已知数据均使用独立字段传递
      */
     @Nullable
     private Bundle extra;
     /**
-     * Extra 包中用于存储歌词翻译数据的 Key 值
+     * 歌词翻译
+     */
+    @Nullable
+    private String translation;
+    /**
+     * 对唱歌词位置，false 表示左，true 表示右
+     */
+    @Nullable
+    private Boolean duet;
+    /**
+     * 逐字歌词数据
+     */
+    @Nullable
+    private PackedEnhancedLRCData enhancedLRCData;
+    /**
+     * 从 MediaMetadata 中提取的歌曲名、艺术家与专辑，单独传递，接收方无需解码 MediaMetadata
+     */
+    @Nullable
+    private String title;
+    @Nullable
+    private String artist;
+    @Nullable
+    private String album;
+    /**
+     * 内容指纹，设置数据后失效，接收时直接读取发送方计算的结果
+     */
+    private long fingerprint;
+    private volatile boolean hasFingerprint = false;
+    /**
+     * MediaMetadata 的世代号，0 表示未启用增量推送
      * <p>
-     * 我们将使用此 Key 存储歌词翻译数据
+     * 当 MediaMetadata 未改变时，发送方只传递世代号，由接收方从缓存中恢复
+     *
+     * @see SuperLyricDeltaEncoder
+     * @see SuperLyricDeltaDecoder
+     */
+    int metadataGeneration = 0;
+    /**
+     * 发送时间 (elapsedRealtimeNanos)，仅在发送方开启统计时传递，0 表示未知
+     *
+     * @see SuperLyricMetrics
+     */
+    long publishTime = 0;
+    /**
+     * 接收时间 (elapsedRealtimeNanos)，仅在接收方开启统计时记录，不会传递
+     */
+    long receiveTime = 0;
+    /**
+     * PlaybackState 的世代号，0 表示未启用增量推送
+     */
+    int playbackStateGeneration = 0;
+    /**
+     * 整首歌曲的歌词时间轴
+     */
+    @Nullable
+    private SuperLyricTimeline timeline;
+    /**
+     * 多轨歌词，原文、罗马音与翻译等共用同一组时间
+     */
+    @Nullable
+    private SuperLyricTracks tracks;
+    /**
+     * 音乐软件的图标，通过共享内存传递
+     */
+    @Nullable
+    private SuperLyricImage icon;
+    /**
+     * 当前歌曲的封面，通过共享内存传递
+     */
+    @Nullable
+    private SuperLyricImage artwork;
+    /**
+     * 旧版本 Extra 包中用于存储歌词翻译数据的 Key 值
+     * <p>
+     * 仅用于兼容旧版本发送方与接收方
      */
     private static final String KEY_TRANSLATION = "key_translation";
     /**
-     * Extra 包中用于存储逐字歌词数据的 Key 值
+     * 旧版本 Extra 包中用于存储逐字歌词数据的 Key 值
      * <p>
-     * 我们将使用此 Key 存储逐字歌词数据
+     * 仅用于兼容旧版本发送方与接收方
      */
     private static final String KEY_ENHANCED_LRC_DATA = "key_enhanced_lrc_data";
 
     /**
-     * Extra 包中用于存储对唱歌词位置数据的 Key 值
+     * 旧版本 Extra 包中用于存储对唱歌词位置数据的 Key 值
      * <p>
-     * 我们将使用此 Key 存储对唱歌词位置数据
+     * 仅用于兼容旧版本发送方与接收方
      */
     private static final String KEY_DUTE = "key_duet";
 
+    /**
+     * 扩展数据段的魔数
+     * <p>
+     * 扩展数据段追加在旧版本数据之后，旧版本接收方读取完旧版本数据后会直接忽略它
+     */
+    private static final int WIRE_MAGIC = 0x534C5944; // "SLYD"
+    /**
+     * 扩展数据段的版本
+     * <p>
+     * 新增字段只能追加在已有字段之后，并占用新的标志位，此时无需修改版本；仅在已有字段的格式改变时才修改版本，接收方会跳过版本不同的数据段
+     */
+    static final int WIRE_VERSION = 1;
+    /**
+     * 扩展数据段的结尾魔数
+     */
+    private static final int WIRE_FOOTER_MAGIC = 0x534C5946; // "SLYF"
+    /**
+     * 旧格式的结尾魔数，结尾数据仅包含内容指纹、歌曲信息的位置、结尾魔数与数据包长度
+     */
+    private static final int WIRE_FOOTER_MAGIC_V1 = 0x534C5945; // "SLYE"
+    /**
+     * 结尾数据的长度：内容标志位、两个世代号、内容指纹、歌曲信息的位置、结尾魔数与数据包长度
+     */
+    private static final int FOOTER_SIZE = 32;
+    private static final int FOOTER_SIZE_V1 = 20;
+    /**
+     * 结尾数据中的内容标志位，延迟解码时无需解码即可判断是否携带 MediaMetadata 与 PlaybackState
+     */
+    private static final int CONTENT_MEDIA_METADATA = 1;
+    private static final int CONTENT_PLAYBACK_STATE = 1 << 1;
+    /**
+     * 扩展数据段字段标志位，未设置的字段不会写入
+     */
+    private static final int FIELD_TRANSLATION = 1;
+    private static final int FIELD_DUET = 1 << 1;
+    private static final int FIELD_ENHANCED_LRC_DATA = 1 << 2;
+    /**
+     * 仅用于兼容旧版本发送方，世代号现已写在结尾数据中
+     */
+    private static final int FIELD_GENERATION = 1 << 3;
+    private static final int FIELD_TIMELINE = 1 << 4;
+    private static final int FIELD_ICON = 1 << 5;
+    private static final int FIELD_ARTWORK = 1 << 6;
+    private static final int FIELD_METADATA_TEXT = 1 << 7;
+    private static final int FIELD_PUBLISH_TIME = 1 << 8;
+    private static final int FIELD_TRACKS = 1 << 9;
+    private static final int FIELD_SPILL = 1 << 10;
+    /**
+     * 仅作标记，不携带数据：Extra 包中同时写入了旧版本格式的数据，接收方需将其移除
+     */
+    private static final int FIELD_LEGACY_EXTRA = 1 << 11;
+    /**
+     * 数据超出大小上限时仍保留在包裹中的字段，其余数据写入共享内存
+     */
+    private static final int SPILL_KEPT_FIELDS = FIELD_ICON | FIELD_ARTWORK | FIELD_METADATA_TEXT | FIELD_PUBLISH_TIME;
+    /**
+     * 默认的包裹大小上限 (字节)
+     */
+    public static final int DEFAULT_MAX_PARCEL_SIZE = 128 * 1024;
+    private static final String TAG = "SuperLyricData";
+
+    /**
+     * 实例池
+     */
+    private static final Object poolSync = new Object();
+    private static final int MAX_POOL_SIZE = 8;
+    @Nullable
+    private static SuperLyricData pool;
+    private static int poolSize = 0;
+    private static volatile boolean poolEnabled = false;
+    /**
+     * 是否开启延迟解码
+     */
+    private static volatile boolean lazyDecodeEnabled = false;
+    /**
+     * 是否同时在 Extra 包中写入旧版本格式的翻译、对唱与逐字歌词数据
+     */
+    private static volatile boolean legacyExtraEnabled = false;
+    private static volatile int maxParcelSize = DEFAULT_MAX_PARCEL_SIZE;
+    /**
+     * 超出大小上限时写入的共享内存，写入后未经修改时重复写入直接复用
+     */
+    @Nullable
+    private SharedMemory spill;
+    /**
+     * 共享内存中的数据是否仍与当前数据一致，任何修改都会使其失效
+     */
+    private volatile boolean spillValid = false;
+    /**
+     * 延迟解码时暂存的数据，首次访问 MediaMetadata 等数据时才会解码
+     */
+    @Nullable
+    private volatile Parcel lazyPayload;
+    @Nullable
+    private PayloadReference payloadReference;
+    /**
+     * 暂存数据中的内容标志位
+     */
+    private int lazyContents;
+    @Nullable
+    private SuperLyricData next;
+    /**
+     * 是否已归还，仅在持有 poolSync 时读写
+     */
+    private boolean inPool = false;
+    /**
+     * 是否由 {@link SuperLyricDispatcher} 分发，此类实例可能同时被多个监听器持有，不允许归还
+     */
+    private volatile boolean shared = false;
+
     public SuperLyricData() {
     }
 
+    /**
+     * 从实例池中获取实例，实例池为空时创建新的实例
+     * <p>
+     * 使用完毕后可调用 {@link #recycle()} 归还
+     */
+    @NonNull
+    public static SuperLyricData obtain() {
+        synchronized (poolSync) {
+            if (pool != null) {
+                SuperLyricData data = pool;
+                pool = data.next;
+                data.next = null;
+                data.inPool = false;
+                data.shared = false;
+                poolSize--;
+                return data;
+            }
+        }
+        return new SuperLyricData();
+    }
+
+    /**
+     * 归还实例，归还后请勿再使用此实例
+     * <p>
+     * Note：仅在确定没有其他地方持有此实例时调用；{@link SuperLyricDispatcher} 会将同一实例分发给多个监听器，
+     * 由其分发的实例调用此方法无效；{@link SuperLyricSessionManager} 等会保留最近一次数据的类也会继续持有实例，
+     * 传递给它们的实例同样请勿归还
+     *
+     * @throws IllegalStateException 重复归还
+     */
+    public void recycle() {
+        if (shared) return;
+        synchronized (poolSync) {
+            if (inPool) throw new IllegalStateException("This SuperLyricData has already been recycled!");
+            inPool = true;
+        }
+
+        reset();
+        synchronized (poolSync) {
+            if (poolSize < MAX_POOL_SIZE) {
+                next = pool;
+                pool = this;
+                poolSize++;
+            }
+        }
+    }
+
+    /**
+     * 标记为共享实例，之后调用 {@link #recycle()} 无效
+     */
+    void markShared() {
+        shared = true;
+    }
+
+    /**
+     * 设置接收数据时是否从实例池中获取实例
+     * <p>
+     * 开启后 {@link #CREATOR} 将复用已归还的实例，接收方处理完数据后调用 {@link #recycle()} 即可减少对象分配；
+     * 未归还的实例会被正常回收，不会造成泄漏
+     * <p>
+     * Note：经 {@link SuperLyricDispatcher} 分发的实例不会被归还，交给 {@link SuperLyricSessionManager} 等会保留数据的类处理的实例也请勿归还
+     */
+    public static void setPoolEnabled(boolean enabled) {
+        poolEnabled = enabled;
+    }
+
+    /**
+     * 浅拷贝
+     */
+    SuperLyricData(@NonNull SuperLyricData data) {
+        data.ensureDecoded();
+        lyric = data.lyric;
+        packageName = data.packageName;
+        base64Icon = data.base64Icon;
+        delay = data.delay;
+        mediaMetadata = data.mediaMetadata;
+        playbackState = data.playbackState;
+        extra = data.extra;
+        translation = data.translation;
+        duet = data.duet;
+        enhancedLRCData = data.enhancedLRCData;
+        title = data.title;
+        artist = data.artist;
+        album = data.album;
+        fingerprint = data.getFingerprint();
+        hasFingerprint = true;
+        metadataGeneration = data.metadataGeneration;
+        publishTime = data.publishTime;
+        receiveTime = data.receiveTime;
+        playbackStateGeneration = data.playbackStateGeneration;
+        timeline = data.timeline;
+        tracks = data.tracks;
+        icon = data.icon;
+        artwork = data.artwork;
+    }
+
     /**
      * 是否存在歌词数据
      */
@@ -126,21 +423,56 @@ public class SuperLyricData implements Parcelable {
      * 是否存在翻译数据
      */
     public boolean isExistTranslation() {
-        return extra != null && extra.containsKey(KEY_TRANSLATION);
+        ensureDecoded();
+        return translation != null;
     }
 
     /**
      * 是否存在逐字歌词数据
      */
     public boolean isExistEnhancedLRCData() {
-        return extra != null && extra.containsKey(KEY_ENHANCED_LRC_DATA);
+        ensureDecoded();
+        return enhancedLRCData != null;
     }
 
     /**
      * 是否存在对唱歌词位置数据
      */
     public boolean isExistDute() {
-        return extra != null && extra.containsKey(KEY_DUTE);
+        ensureDecoded();
+        return duet != null;
+    }
+
+    /**
+     * 是否存在歌词时间轴数据
+     */
+    public boolean isExistTimeline() {
+        ensureDecoded();
+        return timeline != null;
+    }
+
+    /**
+     * 是否存在多轨歌词数据
+     */
+    public boolean isExistTracks() {
+        ensureDecoded();
+        return tracks != null;
+    }
+
+    /**
+     * 是否存在图标数据
+     */
+    public boolean isExistIcon() {
+        ensureDecoded();
+        return icon != null;
+    }
+
+    /**
+     * 是否存在封面数据
+     */
+    public boolean isExistArtwork() {
+        ensureDecoded();
+        return artwork != null;
     }
 
     /**
@@ -171,34 +503,54 @@ public class SuperLyricData implements Parcelable {
      * 是否存在 MediaMetadata 数据
      */
     public boolean isExistMediaMetadata() {
-        return Objects.nonNull(mediaMetadata);
+        return hasContent(CONTENT_MEDIA_METADATA);
     }
 
     /**
      * 是否存在 PlaybackState 数据
      */
     public boolean isExistPlaybackState() {
-        return Objects.nonNull(playbackState);
+        return hasContent(CONTENT_PLAYBACK_STATE);
+    }
+
+    /**
+     * 判断是否携带 MediaMetadata 或 PlaybackState，延迟解码时直接读取结尾数据中的内容标志位
+     */
+    private boolean hasContent(int content) {
+        Object value = content == CONTENT_MEDIA_METADATA ? mediaMetadata : playbackState;
+        if (value != null) return true;
+        if (lazyPayload == null) return false;
+
+        synchronized (this) {
+            if (lazyPayload != null) return (lazyContents & content) != 0;
+        }
+        return (content == CONTENT_MEDIA_METADATA ? mediaMetadata : playbackState) != null;
     }
 
     /**
      * 是否存在附加数据
      */
     public boolean isExistExtra() {
+        ensureDecoded();
         return Objects.nonNull(extra);
     }
 
     public SuperLyricData setLyric(@NonNull String lyric) {
+        modified();
         if (Objects.isNull(lyric)) lyric = "";
         this.lyric = lyric;
         return this;
     }
 
+    /**
+     * 设置歌词翻译
+     * <p>
+     * 需要同时发送罗马音或多种翻译时请使用 {@link #setTracks(SuperLyricTracks)}；两者同时存在时，接收方以多轨歌词中的翻译轨道为准
+     */
     public SuperLyricData setTranslation(@NonNull String translation) {
-        if (Objects.nonNull(translation)) {
-            if (this.extra == null) this.extra = new Bundle();
-            this.extra.putString(KEY_TRANSLATION, translation);
-        }
+        ensureDecoded();
+        modified();
+        if (Objects.nonNull(translation)) this.translation = translation;
         return this;
     }
     /**
@@ -206,22 +558,57 @@ public class SuperLyricData implements Parcelable {
      * @param duet 是否对唱
      */
     public SuperLyricData setDuet(@NonNull Boolean duet) {
-        if (Objects.nonNull(duet)) {
-            if (this.extra == null) this.extra = new Bundle();
-            this.extra.putBoolean(KEY_DUTE, duet);
-        }
+        ensureDecoded();
+        modified();
+        if (Objects.nonNull(duet)) this.duet = duet;
         return this;
     }
 
     public SuperLyricData setEnhancedLRCData(@NonNull EnhancedLRCData[] data) {
-        if (Objects.nonNull(data)) {
-            if (this.extra == null) this.extra = new Bundle();
-            this.extra.putParcelableArray(KEY_ENHANCED_LRC_DATA, data);
-        }
+        ensureDecoded();
+        modified();
+        if (Objects.nonNull(data)) this.enhancedLRCData = PackedEnhancedLRCData.of(data);
+        return this;
+    }
+
+    /**
+     * 设置紧凑格式的逐字歌词数据
+     */
+    public SuperLyricData setEnhancedLRCData(@NonNull PackedEnhancedLRCData data) {
+        ensureDecoded();
+        modified();
+        if (Objects.nonNull(data)) this.enhancedLRCData = data;
+        return this;
+    }
+
+    /**
+     * 设置整首歌曲的歌词时间轴
+     * <p>
+     * 建议在切换歌曲时发送一次，接收方可根据 PlaybackState 的播放进度自行查找当前歌词
+     */
+    public SuperLyricData setTimeline(@NonNull SuperLyricTimeline timeline) {
+        ensureDecoded();
+        modified();
+        if (Objects.nonNull(timeline)) this.timeline = timeline;
+        return this;
+    }
+
+    /**
+     * 设置多轨歌词
+     * <p>
+     * 需要同时发送原文、罗马音与翻译等多种文本时使用，所有轨道共用一组时间并整体写入；逐行推送时传入只有一行的多轨歌词即可
+     * <p>
+     * 其中的 {@link SuperLyricTracks#TRACK_TRANSLATION} 轨道优先于 {@link #setTranslation(String)} 与时间轴中的翻译
+     */
+    public SuperLyricData setTracks(@NonNull SuperLyricTracks tracks) {
+        ensureDecoded();
+        modified();
+        if (Objects.nonNull(tracks)) this.tracks = tracks;
         return this;
     }
 
     public SuperLyricData setPackageName(@NonNull String packageName) {
+        modified();
         if (Objects.isNull(packageName)) packageName = "";
         this.packageName = packageName;
         return this;
@@ -229,27 +616,124 @@ public class SuperLyricData implements Parcelable {
 
     @Deprecated(since = "1.8")
     public SuperLyricData setBase64Icon(@NonNull String base64Icon) {
+        modified();
         if (Objects.isNull(base64Icon)) base64Icon = "";
         this.base64Icon = base64Icon;
         return this;
     }
 
+    /**
+     * 设置音乐软件的图标
+     *
+     * @see SuperLyricImage#of(android.graphics.Bitmap)
+     */
+    public SuperLyricData setIcon(@NonNull SuperLyricImage icon) {
+        ensureDecoded();
+        modified();
+        if (Objects.nonNull(icon)) this.icon = icon;
+        return this;
+    }
+
+    /**
+     * 设置当前歌曲的封面
+     * <p>
+     * MediaMetadata 中的 Bitmap 会被抹去，如需传递封面请使用此方法
+     *
+     * @see SuperLyricImage#of(android.graphics.Bitmap)
+     */
+    public SuperLyricData setArtwork(@NonNull SuperLyricImage artwork) {
+        ensureDecoded();
+        modified();
+        if (Objects.nonNull(artwork)) this.artwork = artwork;
+        return this;
+    }
+
     public SuperLyricData setDelay(int delay) {
+        modified();
         this.delay = delay;
         return this;
     }
 
     public SuperLyricData setMediaMetadata(@NonNull MediaMetadata mediaMetadata) {
+        ensureDecoded();
+        modified();
         this.mediaMetadata = SuperLyricTool.removeMediaMetadataBitmap(mediaMetadata);
+        updateMetadataText(mediaMetadata);
         return this;
     }
 
     public SuperLyricData setPlaybackState(@NonNull PlaybackState playbackState) {
+        ensureDecoded();
+        modified();
         this.playbackState = playbackState;
         return this;
     }
 
+    /**
+     * 直接设置 MediaMetadata，不再抹除 Bitmap，仅供内部使用
+     */
+    void putMediaMetadata(@Nullable MediaMetadata mediaMetadata) {
+        // 暂存数据中不含 MediaMetadata 时无需解码，解码时不会覆盖此处设置的值
+        if (hasContent(CONTENT_MEDIA_METADATA)) ensureDecoded();
+        modified();
+        this.mediaMetadata = mediaMetadata;
+        if (mediaMetadata != null && title == null && artist == null && album == null)
+            updateMetadataText(mediaMetadata);
+    }
+
+    /**
+     * 数据被修改，使内容指纹与共享内存失效
+     * <p>
+     * Note：直接修改 {@link #getExtra()} 返回的 Bundle 不会被感知，请重新调用 {@link #setExtra(Bundle)}
+     */
+    private void modified() {
+        hasFingerprint = false;
+        spillValid = false;
+    }
+
+    private void updateMetadataText(@NonNull MediaMetadata mediaMetadata) {
+        title = mediaMetadata.getString(METADATA_KEY_TITLE);
+        artist = mediaMetadata.getString(METADATA_KEY_ARTIST);
+        album = mediaMetadata.getString(METADATA_KEY_ALBUM);
+    }
+
+    /**
+     * 去除全部文件描述符，图片仅保留哈希，MediaMetadata 中的图片被移除
+     * <p>
+     * 用于录制等需要调用 {@link Parcel#marshall()} 的场景，包含文件描述符的 Parcel 无法被序列化
+     */
+    void detachFileDescriptors() {
+        ensureDecoded();
+        detachImages();
+        if (mediaMetadata != null) {
+            mediaMetadata = new MediaMetadata.Builder(mediaMetadata)
+                .putBitmap(METADATA_KEY_ART, null)
+                .putBitmap(METADATA_KEY_ALBUM_ART, null)
+                .putBitmap(METADATA_KEY_DISPLAY_ICON, null)
+                .build();
+        }
+    }
+
+    /**
+     * 将图片替换为不持有共享内存的副本，不会修改原有的图片实例
+     */
+    void detachImages() {
+        if (icon != null) icon = icon.withoutMemory();
+        if (artwork != null) artwork = artwork.withoutMemory();
+    }
+
+    /**
+     * 直接设置 PlaybackState，仅供内部使用
+     */
+    void putPlaybackState(@Nullable PlaybackState playbackState) {
+        if (hasContent(CONTENT_PLAYBACK_STATE)) ensureDecoded();
+        modified();
+        this.playbackState = playbackState;
+    }
+
     public SuperLyricData setExtra(@NonNull Bundle extra) {
+        ensureDecoded();
+        modified();
         if (this.extra == null) this.extra = extra;
         else this.extra.putAll(extra);
         return this;
@@ -262,7 +746,8 @@ public class SuperLyricData implements Parcelable {
 
     @Nullable
     public String getTranslation() {
-        return extra != null ? extra.getString(KEY_TRANSLATION) : null;
+        ensureDecoded();
+        return translation;
     }
     /**
      * 获取对唱数据
@@ -270,16 +755,40 @@ public class SuperLyricData implements Parcelable {
      */
     @Nullable
     public Boolean getDute() {
-        return extra != null ? extra.getBoolean(KEY_DUTE,false) : null;
+        ensureDecoded();
+        return duet;
     }
 
+    /**
+     * 获取逐字歌词对象数组
+     * <p>
+     * Note：接收方首次调用时才会创建对象，逐帧读取时请优先使用 {@link #getPackedEnhancedLRCData()}
+     */
     @Nullable
     public EnhancedLRCData[] getEnhancedLRCData() {
-        if (extra == null) return null;
+        ensureDecoded();
+        return enhancedLRCData != null ? enhancedLRCData.toArray() : null;
+    }
 
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU)
-            return extra.getParcelableArray(KEY_ENHANCED_LRC_DATA, EnhancedLRCData.class);
-        else return (EnhancedLRCData[]) extra.getParcelableArray(KEY_ENHANCED_LRC_DATA);
+    /**
+     * 获取紧凑格式的逐字歌词数据
+     */
+    @Nullable
+    public PackedEnhancedLRCData getPackedEnhancedLRCData() {
+        ensureDecoded();
+        return enhancedLRCData;
+    }
+
+    @Nullable
+    public SuperLyricTimeline getTimeline() {
+        ensureDecoded();
+        return timeline;
+    }
+
+    @Nullable
+    public SuperLyricTracks getTracks() {
+        ensureDecoded();
+        return tracks;
     }
 
     @NonNull
@@ -290,6 +799,8 @@ public class SuperLyricData implements Parcelable {
     @NonNull
     @Deprecated(since = "1.8")
     public String getBase64Icon() {
+        // 数据过大时图标随其余数据经共享内存传递
+        if (base64Icon.isEmpty()) ensureDecoded();
         return base64Icon;
     }
 
@@ -297,57 +808,63 @@ public class SuperLyricData implements Parcelable {
         return delay;
     }
 
+    @Nullable
+    public SuperLyricImage getIcon() {
+        ensureDecoded();
+        return icon;
+    }
+
+    @Nullable
+    public SuperLyricImage getArtwork() {
+        ensureDecoded();
+        return artwork;
+    }
+
     @Nullable
     public MediaMetadata getMediaMetadata() {
+        ensureDecoded();
         return mediaMetadata;
     }
 
     @Nullable
     public PlaybackState getPlaybackState() {
+        ensureDecoded();
         return playbackState;
     }
 
     @Nullable
     public Bundle getExtra() {
+        ensureDecoded();
         return extra;
     }
 
     /**
-     * 获取歌曲的标题，数据来自 MediaMetadata
+     * 获取歌曲的标题，数据在设置或接收 MediaMetadata 时提取
      * <br/>
      * 请注意，蓝牙歌词状态可能使用此参数传递歌词
      */
     @NonNull
     public String getTitle() {
-        if (mediaMetadata == null) return "Unknown";
-
-        return Optional.ofNullable(
-                mediaMetadata.getString(METADATA_KEY_TITLE)
-        ).orElse("Unknown");
+        if (title == null) ensureDecoded();
+        return title != null ? title : "Unknown";
     }
 
     /**
-     * 获取歌曲的艺术家，数据来自 MediaMetadata
+     * 获取歌曲的艺术家，数据在设置或接收 MediaMetadata 时提取
      */
     @NonNull
     public String getArtist() {
-        if (mediaMetadata == null) return "Unknown";
-
-        return Optional.ofNullable(
-                mediaMetadata.getString(METADATA_KEY_ARTIST)
-        ).orElse("Unknown");
+        if (artist == null) ensureDecoded();
+        return artist != null ? artist : "Unknown";
     }
 
     /**
-     * 获取歌曲的专辑，数据来自 MediaMetadata
+     * 获取歌曲的专辑，数据在设置或接收 MediaMetadata 时提取
      */
     @NonNull
     public String getAlbum() {
-        if (mediaMetadata == null) return "Unknown";
-
-        return Optional.ofNullable(
-                mediaMetadata.getString(METADATA_KEY_ALBUM)
-        ).orElse("Unknown");
+        if (album == null) ensureDecoded();
+        return album != null ? album : "Unknown";
     }
 
     /**
@@ -372,6 +889,7 @@ public class SuperLyricData implements Parcelable {
     @NonNull
     @Override
     public String toString() {
+        ensureDecoded();
         return "SuperLyricData{" +
                 "lyric='" + lyric + '\'' +
                 ", packageName='" + packageName + '\'' +
@@ -380,31 +898,146 @@ public class SuperLyricData implements Parcelable {
                 ", mediaMetadata=" + mediaMetadata +
                 ", playbackState=" + playbackState +
                 ", extra=" + extra +
+                ", translation='" + translation + '\'' +
+                ", duet=" + duet +
+                ", enhancedLRCData=" + enhancedLRCData +
+                ", timeline=" + timeline +
+                ", tracks=" + tracks +
+                ", icon=" + icon +
+                ", artwork=" + artwork +
                 '}';
     }
 
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof SuperLyricData data)) return false;
+        ensureDecoded();
+        data.ensureDecoded();
         return delay == data.delay &&
                 Objects.equals(lyric, data.lyric) &&
                 Objects.equals(packageName, data.packageName) &&
                 Objects.equals(base64Icon, data.base64Icon) &&
                 Objects.equals(mediaMetadata, data.mediaMetadata) &&
                 Objects.equals(playbackState, data.playbackState) &&
-                Objects.equals(extra, data.extra);
+                Objects.equals(extra, data.extra) &&
+                Objects.equals(translation, data.translation) &&
+                Objects.equals(duet, data.duet) &&
+                Objects.equals(enhancedLRCData, data.enhancedLRCData) &&
+                Objects.equals(timeline, data.timeline) &&
+                Objects.equals(tracks, data.tracks) &&
+                Objects.equals(icon, data.icon) &&
+                Objects.equals(artwork, data.artwork);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(lyric, packageName, base64Icon, delay, mediaMetadata, playbackState, extra);
+        return Long.hashCode(getFingerprint());
+    }
+
+    /**
+     * 获取 64 位内容指纹，可用于快速判断两次推送的数据是否相同
+     * <p>
+     * 覆盖全部会被发送的数据，但不包含增量推送的世代号；MediaMetadata、PlaybackState 与附加数据按序列化后的字节计算
+     * <p>
+     * 指纹在首次获取时计算并缓存，调用 setter 后失效；接收方直接使用发送方计算的结果，无需解码 MediaMetadata 等数据
+     * <p>
+     * Note：直接修改 {@link #getExtra()} 返回的 Bundle 不会使指纹失效
+     */
+    public long getFingerprint() {
+        if (hasFingerprint) return fingerprint;
+
+        ensureDecoded();
+        long hash = Fingerprint.SEED;
+        hash = Fingerprint.mix(hash, lyric);
+        hash = Fingerprint.mix(hash, packageName);
+        hash = Fingerprint.mix(hash, base64Icon);
+        hash = Fingerprint.mix(hash, delay);
+        hash = Fingerprint.mix(hash, title);
+        hash = Fingerprint.mix(hash, artist);
+        hash = Fingerprint.mix(hash, album);
+        hash = mediaMetadata != null ? mixMediaMetadata(hash, mediaMetadata) : Fingerprint.mix(hash, 0);
+        hash = playbackState != null ? mixPlaybackState(hash, playbackState) : Fingerprint.mix(hash, 0);
+        hash = extra != null ? Fingerprint.mix(hash, marshallBundle(extra)) : Fingerprint.mix(hash, 0);
+        hash = Fingerprint.mix(hash, translation);
+        hash = Fingerprint.mix(hash, duet == null ? 0 : duet ? 2 : 1);
+        hash = Fingerprint.mix(hash, enhancedLRCData != null ? enhancedLRCData.contentHash() : 0);
+        hash = Fingerprint.mix(hash, timeline != null ? timeline.contentHash() : 0);
+        hash = Fingerprint.mix(hash, tracks != null ? tracks.contentHash() : 0);
+        hash = Fingerprint.mix(hash, icon != null ? icon.getHash() : 0);
+        hash = Fingerprint.mix(hash, artwork != null ? artwork.getHash() : 0);
+
+        fingerprint = Fingerprint.finish(hash);
+        hasFingerprint = true;
+        return fingerprint;
+    }
+
+    /**
+     * 按序列化后的字节计算 MediaMetadata，包含无法序列化的图片时退回为歌曲名、艺术家、专辑、时长与键集合
+     */
+    private static long mixMediaMetadata(long hash, @NonNull MediaMetadata metadata) {
+        byte[] bytes = marshall(parcel -> metadata.writeToParcel(parcel, 0));
+        if (bytes != null) return Fingerprint.mix(hash, bytes);
+
+        hash = Fingerprint.mix(hash, metadata.getString(METADATA_KEY_TITLE));
+        hash = Fingerprint.mix(hash, metadata.getString(METADATA_KEY_ARTIST));
+        hash = Fingerprint.mix(hash, metadata.getString(METADATA_KEY_ALBUM));
+        hash = Fingerprint.mix(hash, metadata.getLong(METADATA_KEY_DURATION));
+        for (String key : new TreeSet<>(metadata.keySet())) hash = Fingerprint.mix(hash, key);
+        return hash;
+    }
+
+    /**
+     * 按序列化后的字节计算 PlaybackState，包含自定义操作与附加数据；无法序列化时退回为基础字段
+     */
+    private static long mixPlaybackState(long hash, @NonNull PlaybackState state) {
+        byte[] bytes = marshall(parcel -> state.writeToParcel(parcel, 0));
+        if (bytes != null) return Fingerprint.mix(hash, bytes);
+
+        hash = Fingerprint.mix(hash, state.getState());
+        hash = Fingerprint.mix(hash, state.getPosition());
+        hash = Fingerprint.mix(hash, state.getBufferedPosition());
+        hash = Fingerprint.mix(hash, Float.floatToIntBits(state.getPlaybackSpeed()));
+        hash = Fingerprint.mix(hash, state.getActions());
+        return Fingerprint.mix(hash, state.getLastPositionUpdateTime());
+    }
+
+    /**
+     * 序列化 Bundle，用于计算内容指纹
+     * <p>
+     * 包含文件描述符或 Binder 等无法序列化的数据时，退回为只使用 Key 的集合
+     */
+    @NonNull
+    private static byte[] marshallBundle(@NonNull Bundle bundle) {
+        byte[] bytes = marshall(parcel -> parcel.writeBundle(bundle));
+        if (bytes != null) return bytes;
+        return new TreeSet<>(bundle.keySet()).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 序列化数据，包含文件描述符或 Binder 时返回 null
+     */
+    @Nullable
+    private static byte[] marshall(@NonNull Consumer<Parcel> writer) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            writer.accept(parcel);
+            return parcel.marshall();
+        } catch (RuntimeException e) {
+            return null;
+        } finally {
+            parcel.recycle();
+        }
     }
 
     public static final Creator<SuperLyricData> CREATOR = new Creator<SuperLyricData>() {
         @NonNull
         @Override
         public SuperLyricData createFromParcel(Parcel in) {
-            return new SuperLyricData(in);
+            if (!poolEnabled) return new SuperLyricData(in);
+
+            SuperLyricData data = obtain();
+            data.readFromParcel(in);
+            return data;
         }
 
         @NonNull
@@ -415,28 +1048,592 @@ public class SuperLyricData implements Parcelable {
     };
 
     private SuperLyricData(@NonNull Parcel in) {
-        lyric = Optional.ofNullable(in.readString()).orElse("");
-        packageName = Optional.ofNullable(in.readString()).orElse("");
-        base64Icon = Optional.ofNullable(in.readString()).orElse("");
+        readFromParcel(in);
+    }
+
+    /**
+     * 从包裹中读取数据，覆盖当前实例的全部数据
+     * <p>
+     * 可配合 {@link #obtain()} 与 {@link #recycle()} 复用实例
+     */
+    public void readFromParcel(@NonNull Parcel in) {
+        reset();
+        int start = in.dataPosition();
+        lyric = nonNullString(in.readString());
+        packageName = nonNullString(in.readString());
+        base64Icon = nonNullString(in.readString());
         delay = in.readInt();
-        mediaMetadata = in.readParcelable(MediaMetadata.class.getClassLoader());
-        playbackState = in.readParcelable(PlaybackState.class.getClassLoader());
+        if (!lazyDecodeEnabled || !readLazyPayload(in, start)) readHeavyFields(in);
+
+        if (SuperLyricMetrics.isEnabled()) {
+            receiveTime = SystemClock.elapsedRealtimeNanos();
+            SuperLyricMetrics.onReceivedParcelSize(in.dataPosition() - start);
+        }
+    }
+
+    /**
+     * 暂存其余数据，仅在数据包位于包裹末尾且结尾校验通过时生效
+     *
+     * @return 是否成功暂存
+     */
+    private boolean readLazyPayload(@NonNull Parcel in, int start) {
+        int position = in.dataPosition();
+        int end = in.dataSize();
+        if (end - position < FOOTER_SIZE) return false;
+
+        in.setDataPosition(end - FOOTER_SIZE);
+        int contents = in.readInt();
+        int metadataGeneration = in.readInt();
+        int playbackStateGeneration = in.readInt();
+        long fingerprint = in.readLong();
+        int textOffset = in.readInt();
+        if (in.readInt() != WIRE_FOOTER_MAGIC || in.readInt() != end - start) {
+            in.setDataPosition(position);
+            return false;
+        }
+
+        // 歌曲信息与世代号直接读取，显示歌曲名或补全增量数据时无需解码
+        this.fingerprint = fingerprint;
+        hasFingerprint = true;
+        this.metadataGeneration = metadataGeneration;
+        this.playbackStateGeneration = playbackStateGeneration;
+        lazyContents = contents;
+        if (textOffset >= position - start && textOffset < end - start - FOOTER_SIZE) {
+            in.setDataPosition(start + textOffset);
+            readMetadataText(in);
+        }
+
+        PayloadReference.drain();
+        Parcel payload = Parcel.obtain();
+        payload.appendFrom(in, position, end - position);
+        payload.setDataPosition(0);
+        payloadReference = new PayloadReference(this, payload);
+        lazyPayload = payload;
+        in.setDataPosition(end);
+        return true;
+    }
+
+    /**
+     * 跟踪暂存的数据，实例未经解码即被回收时，在下一次延迟解码时归还暂存的 Parcel
+     */
+    private static final class PayloadReference extends PhantomReference<SuperLyricData> {
+        private static final ReferenceQueue<SuperLyricData> queue = new ReferenceQueue<>();
+        private static final Set<PayloadReference> references = ConcurrentHashMap.newKeySet();
+        @Nullable
+        private volatile Parcel payload;
+
+        private PayloadReference(@NonNull SuperLyricData data, @NonNull Parcel payload) {
+            super(data, queue);
+            this.payload = payload;
+            references.add(this);
+        }
+
+        /**
+         * 暂存数据已解码或已释放，不再跟踪
+         */
+        private void release() {
+            payload = null;
+            references.remove(this);
+            clear();
+        }
+
+        private static void drain() {
+            PayloadReference reference;
+            while ((reference = (PayloadReference) queue.poll()) != null) {
+                Parcel payload = reference.payload;
+                reference.release();
+                if (payload != null) payload.recycle();
+            }
+        }
+    }
+
+    /**
+     * 读取除歌词、包名、图标与 Delay 以外的数据
+     */
+    private void readHeavyFields(@NonNull Parcel in) {
+        // 延迟解码前可能已由 SuperLyricDeltaDecoder 补全，数据包中不含对应字段时保留
+        MediaMetadata mediaMetadata = in.readParcelable(MediaMetadata.class.getClassLoader());
+        PlaybackState playbackState = in.readParcelable(PlaybackState.class.getClassLoader());
+        if (mediaMetadata != null) this.mediaMetadata = mediaMetadata;
+        if (playbackState != null) this.playbackState = playbackState;
+        // 新版本发送方仅在开启兼容时才在 Extra 包中写入旧版本格式的数据，其余情况无需展开 Extra 包
         extra = in.readBundle(getClass().getClassLoader());
+        if (!readTypedFields(in)) readLegacyExtra();
+        // 旧版本发送方未单独传递歌曲信息
+        if (mediaMetadata != null && title == null && artist == null && album == null)
+            updateMetadataText(mediaMetadata);
+    }
+
+    private void writeMetadataText(@NonNull Parcel dest) {
+        dest.writeString(title);
+        dest.writeString(artist);
+        dest.writeString(album);
+    }
+
+    private void readMetadataText(@NonNull Parcel in) {
+        title = in.readString();
+        artist = in.readString();
+        album = in.readString();
+    }
+
+    /**
+     * 解码暂存的数据
+     */
+    void ensureDecoded() {
+        if (lazyPayload == null) return;
+
+        synchronized (this) {
+            Parcel payload = lazyPayload;
+            if (payload == null) return;
+
+            readHeavyFields(payload);
+            releasePayloadReference();
+            payload.recycle();
+            lazyPayload = null;
+        }
+    }
+
+    private void releasePayloadReference() {
+        if (payloadReference != null) {
+            payloadReference.release();
+            payloadReference = null;
+        }
+    }
+
+    /**
+     * 设置接收数据时是否延迟解码
+     * <p>
+     * 开启后接收时仅解码歌词、包名等基础数据，MediaMetadata、PlaybackState、附加数据、逐字歌词等将在首次访问时才解码，歌曲名、艺术家与专辑仍会直接读取
+     */
+    public static void setLazyDecodeEnabled(boolean enabled) {
+        lazyDecodeEnabled = enabled;
+    }
+
+    /**
+     * 设置写入包裹时是否同时在 Extra 包中写入旧版本格式的翻译、对唱与逐字歌词数据，默认关闭
+     * <p>
+     * 旧版本接收方只能从 Extra 包中读取这些数据，需要兼容时可开启，但会增大包裹大小
+     */
+    public static void setLegacyExtraEnabled(boolean enabled) {
+        legacyExtraEnabled = enabled;
+    }
+
+    /**
+     * 设置写入包裹时的大小上限 (字节)，默认 {@link #DEFAULT_MAX_PARCEL_SIZE}
+     * <p>
+     * Binder 缓冲区只有 1 MiB 且由进程内全部事务共享，超出上限时除歌词、包名、图片与歌曲名等基础数据外，其余数据改为通过共享内存传递，
+     * 接收方读取时自动合并为一次完整的数据；系统版本低于 Android 8.1 或共享内存创建失败时，超出部分将被丢弃，可通过 {@link #prepareParcel()} 预先检查
+     */
+    public static void setMaxParcelSize(int bytes) {
+        if (bytes <= 0) throw new IllegalArgumentException("Max parcel size must be positive!");
+        maxParcelSize = bytes;
+    }
+
+    /**
+     * 计算写入包裹后的大小 (字节)，未超出上限时即为实际传输的大小
+     */
+    public int getParcelSize() {
+        ensureDecoded();
+        Parcel parcel = Parcel.obtain();
+        try {
+            writeFields(parcel, 0, publishTime, true, null);
+            return parcel.dataPosition();
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    /**
+     * 检查数据能否完整传递，建议在推送较大的数据前调用
+     * <p>
+     * 超出大小上限时会预先写入共享内存，推送时直接复用
+     *
+     * @return 系统版本低于 Android 8.1 或共享内存创建失败时返回 false，此时推送只会传递歌词、包名、图片与歌曲名等基础数据
+     */
+    public boolean prepareParcel() {
+        if (getParcelSize() <= maxParcelSize) return true;
+        return spill() != null;
+    }
+
+    @NonNull
+    private static String nonNullString(@Nullable String s) {
+        return s != null ? s : "";
+    }
+
+    /**
+     * 重置为初始状态
+     */
+    private void reset() {
+        Parcel payload = lazyPayload;
+        if (payload != null) {
+            lazyPayload = null;
+            releasePayloadReference();
+            payload.recycle();
+        }
+        lazyContents = 0;
+        releaseSpill();
+        lyric = "";
+        packageName = "";
+        base64Icon = "";
+        delay = 0;
+        mediaMetadata = null;
+        playbackState = null;
+        extra = null;
+        translation = null;
+        duet = null;
+        enhancedLRCData = null;
+        title = null;
+        artist = null;
+        album = null;
+        fingerprint = 0;
+        hasFingerprint = false;
+        metadataGeneration = 0;
+        publishTime = 0;
+        receiveTime = 0;
+        playbackStateGeneration = 0;
+        timeline = null;
+        tracks = null;
+        icon = null;
+        artwork = null;
     }
 
     @Override
     public void writeToParcel(@NonNull Parcel dest, int flags) {
+        ensureDecoded();
+        int start = dest.dataPosition();
+        // 转发时保留最初的发送时间
+        long time = publishTime != 0 ? publishTime : SuperLyricMetrics.isEnabled() ? SystemClock.elapsedRealtimeNanos() : 0;
+        // 内容未改变且已写入共享内存时无需再完整写入一次
+        synchronized (this) {
+            if (spill != null && spillValid) {
+                writeFields(dest, flags, time, false, spill);
+                SuperLyricMetrics.onSentParcelSize(dest.dataPosition() - start);
+                return;
+            }
+        }
+        writeFields(dest, flags, time, true, null);
+
+        if (dest.dataPosition() - start > maxParcelSize) {
+            SharedMemory memory = spill();
+            // 丢弃已写入的数据，包括其中的文件描述符
+            dest.setDataSize(start);
+            dest.setDataPosition(start);
+            writeFields(dest, flags, time, false, memory);
+            if (memory == null)
+                Log.w(TAG, "Parcel too large, only basic fields are sent: " + packageName);
+        }
+        SuperLyricMetrics.onSentParcelSize(dest.dataPosition() - start);
+    }
+
+    /**
+     * 写入数据
+     *
+     * @param full  是否写入全部数据，否则只写入歌词、包名、Delay、图片、歌曲名等基础数据
+     * @param spill 存放其余数据的共享内存，仅在只写入基础数据时使用
+     */
+    private void writeFields(@NonNull Parcel dest, int flags, long publishTime, boolean full, @Nullable SharedMemory spill) {
+        int start = dest.dataPosition();
         dest.writeString(lyric);
         dest.writeString(packageName);
-        dest.writeString(base64Icon);
+        dest.writeString(full ? base64Icon : "");
         dest.writeInt(delay);
-        dest.writeParcelable(mediaMetadata, flags);
-        dest.writeParcelable(playbackState, flags);
-        dest.writeBundle(extra);
+        dest.writeParcelable(full ? mediaMetadata : null, flags);
+        dest.writeParcelable(full ? playbackState : null, flags);
+        boolean legacy = full && hasLegacyExtra();
+        dest.writeBundle(!full ? null : legacy ? legacyExtra() : extra);
+        writeTypedFields(dest, flags, start, publishTime, full, legacy, spill);
+    }
+
+    /**
+     * 将全部数据 (图片除外) 序列化后写入共享内存，写入后未经修改时复用上一次的结果
+     * <p>
+     * 不使用内容指纹判断，指纹只覆盖部分数据且可能碰撞
+     *
+     * @return 系统版本过低或创建失败时返回 null
+     */
+    @Nullable
+    private synchronized SharedMemory spill() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O_MR1) return null;
+        if (spill != null && spillValid) return spill;
+        releaseSpill();
+        // 先标记再复制，复制期间的修改同样会使其失效
+        spillValid = true;
+
+        // 图片仍通过外层包裹传递
+        SuperLyricData copy = new SuperLyricData(this);
+        copy.icon = null;
+        copy.artwork = null;
+        try {
+            byte[] bytes = copy.marshallFully(0);
+            SharedMemory memory = SharedMemory.create("super_lyric_data", bytes.length);
+            ByteBuffer buffer = memory.mapReadWrite();
+            try {
+                buffer.put(bytes);
+            } finally {
+                SharedMemory.unmap(buffer);
+            }
+            memory.setProtect(OsConstants.PROT_READ);
+            spill = memory;
+            return memory;
+        } catch (ErrnoException | RuntimeException e) {
+            Log.w(TAG, "Failed to create shared memory!", e);
+            return null;
+        }
+    }
+
+    /**
+     * 不受大小上限限制地序列化全部数据，包含文件描述符时先调用 {@link #detachFileDescriptors()}，因此可能修改当前实例
+     *
+     * @param publishTime 发送时间，0 表示不写入
+     */
+    @NonNull
+    byte[] marshallFully(long publishTime) {
+        ensureDecoded();
+        Parcel parcel = Parcel.obtain();
+        try {
+            writeFields(parcel, 0, publishTime, true, null);
+            if (parcel.hasFileDescriptors()) {
+                detachFileDescriptors();
+                parcel.setDataSize(0);
+                parcel.setDataPosition(0);
+                writeFields(parcel, 0, publishTime, true, null);
+            }
+            return parcel.marshall();
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private synchronized void releaseSpill() {
+        if (spill == null) return;
+        spill.close();
+        spill = null;
+    }
+
+    /**
+     * 读取共享内存中的数据，覆盖外层包裹中的基础数据
+     */
+    private void readSpill(@NonNull Parcel in) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O_MR1) return;
+
+        SharedMemory memory = SharedMemory.CREATOR.createFromParcel(in);
+        Parcel parcel = Parcel.obtain();
+        try {
+            ByteBuffer buffer = memory.mapReadOnly();
+            byte[] bytes = new byte[buffer.remaining()];
+            try {
+                buffer.get(bytes);
+            } finally {
+                SharedMemory.unmap(buffer);
+            }
+            parcel.unmarshall(bytes, 0, bytes.length);
+            parcel.setDataPosition(0);
+            parcel.readString(); // lyric
+            parcel.readString(); // packageName
+            base64Icon = nonNullString(parcel.readString());
+            parcel.readInt(); // delay
+            readHeavyFields(parcel);
+        } catch (ErrnoException e) {
+            Log.w(TAG, "Failed to read shared memory!", e);
+        } finally {
+            parcel.recycle();
+            memory.close();
+        }
+    }
+
+    /**
+     * 写入扩展数据段
+     * <p>
+     * 格式：魔数、版本、字段标志位、数据长度，之后按标志位顺序写入存在的字段，最后写入内容标志位、世代号、内容指纹、歌曲信息的位置、结尾魔数与整个数据包的长度
+     *
+     * @param start       整个数据包的起始位置
+     * @param publishTime 发送时间，0 表示不传递
+     * @param full        是否写入全部字段，否则只写入 {@link #SPILL_KEPT_FIELDS}
+     * @param legacy      Extra 包中是否同时写入了旧版本格式的数据
+     * @param spill       存放其余数据的共享内存，可为 null
+     */
+    private void writeTypedFields(@NonNull Parcel dest, int flags, int start, long publishTime,
+                                  boolean full, boolean legacy, @Nullable SharedMemory spill) {
+        int fields = 0;
+        if (translation != null) fields |= FIELD_TRANSLATION;
+        if (duet != null) fields |= FIELD_DUET;
+        if (enhancedLRCData != null) fields |= FIELD_ENHANCED_LRC_DATA;
+        if (timeline != null) fields |= FIELD_TIMELINE;
+        if (icon != null) fields |= FIELD_ICON;
+        if (artwork != null) fields |= FIELD_ARTWORK;
+        if (title != null || artist != null || album != null) fields |= FIELD_METADATA_TEXT;
+        if (publishTime != 0) fields |= FIELD_PUBLISH_TIME;
+        if (tracks != null) fields |= FIELD_TRACKS;
+        if (!full) fields &= SPILL_KEPT_FIELDS;
+        if (!full && spill != null) fields |= FIELD_SPILL;
+        if (legacy) fields |= FIELD_LEGACY_EXTRA;
+
+        dest.writeInt(WIRE_MAGIC);
+        dest.writeInt(WIRE_VERSION);
+        dest.writeInt(fields);
+        int sizePosition = dest.dataPosition();
+        dest.writeInt(0);
+        int bodyStart = dest.dataPosition();
+
+        if ((fields & FIELD_TRANSLATION) != 0) dest.writeString(translation);
+        if ((fields & FIELD_DUET) != 0) dest.writeInt(duet ? 1 : 0);
+        if ((fields & FIELD_ENHANCED_LRC_DATA) != 0) enhancedLRCData.writeToParcel(dest);
+        if ((fields & FIELD_TIMELINE) != 0) timeline.writeToParcel(dest);
+        if ((fields & FIELD_ICON) != 0) icon.writeToParcel(dest, flags);
+        if ((fields & FIELD_ARTWORK) != 0) artwork.writeToParcel(dest, flags);
+        int textOffset = -1;
+        if ((fields & FIELD_METADATA_TEXT) != 0) {
+            textOffset = dest.dataPosition() - start;
+            writeMetadataText(dest);
+        }
+        if ((fields & FIELD_PUBLISH_TIME) != 0) dest.writeLong(publishTime);
+        if ((fields & FIELD_TRACKS) != 0) tracks.writeToParcel(dest);
+        if ((fields & FIELD_SPILL) != 0) spill.writeToParcel(dest, flags);
+
+        // 内容标志位、世代号、内容指纹、歌曲信息的位置、结尾魔数与数据包长度，供延迟解码直接读取并定位数据包边界，新增字段需写在此之前
+        int contents = 0;
+        if (mediaMetadata != null) contents |= CONTENT_MEDIA_METADATA;
+        if (playbackState != null) contents |= CONTENT_PLAYBACK_STATE;
+        dest.writeInt(contents);
+        dest.writeInt(metadataGeneration);
+        dest.writeInt(playbackStateGeneration);
+        dest.writeLong(getFingerprint());
+        dest.writeInt(textOffset);
+        dest.writeInt(WIRE_FOOTER_MAGIC);
+        dest.writeInt(dest.dataPosition() + 4 - start);
+
+        int end = dest.dataPosition();
+        dest.setDataPosition(sizePosition);
+        dest.writeInt(end - bodyStart);
+        dest.setDataPosition(end);
+    }
+
+    /**
+     * 读取扩展数据段
+     * <p>
+     * 更高版本写入的未知字段会根据数据长度整体跳过；版本不同时整个数据段均无法识别，将直接跳过
+     *
+     * @return 是否存在可识别的扩展数据段
+     */
+    private boolean readTypedFields(@NonNull Parcel in) {
+        int position = in.dataPosition();
+        if (in.dataAvail() < 16 || in.readInt() != WIRE_MAGIC) {
+            in.setDataPosition(position);
+            return false;
+        }
+
+        int version = in.readInt();
+        int fields = in.readInt();
+        int size = in.readInt();
+        int start = in.dataPosition();
+        if (version != WIRE_VERSION) {
+            if (size >= 0 && size <= in.dataAvail()) in.setDataPosition(start + size);
+            else in.setDataPosition(position);
+            return false;
+        }
+
+        if ((fields & FIELD_TRANSLATION) != 0) translation = in.readString();
+        if ((fields & FIELD_DUET) != 0) duet = in.readInt() != 0;
+        if ((fields & FIELD_ENHANCED_LRC_DATA) != 0)
+            enhancedLRCData = PackedEnhancedLRCData.readFromParcel(in);
+        // 旧版本发送方将世代号写在数据段中，新版本改为写在结尾数据中
+        if ((fields & FIELD_GENERATION) != 0) {
+            metadataGeneration = in.readInt();
+            playbackStateGeneration = in.readInt();
+        }
+        if ((fields & FIELD_TIMELINE) != 0) timeline = SuperLyricTimeline.readFromParcel(in);
+        if ((fields & FIELD_ICON) != 0) icon = SuperLyricImage.readFromParcel(in);
+        if ((fields & FIELD_ARTWORK) != 0) artwork = SuperLyricImage.readFromParcel(in);
+        if ((fields & FIELD_METADATA_TEXT) != 0) readMetadataText(in);
+        if ((fields & FIELD_PUBLISH_TIME) != 0) publishTime = in.readLong();
+        if ((fields & FIELD_TRACKS) != 0) tracks = SuperLyricTracks.readFromParcel(in);
+        if ((fields & FIELD_SPILL) != 0) readSpill(in);
+        if ((fields & FIELD_LEGACY_EXTRA) != 0) removeLegacyExtra();
+        if (size >= FOOTER_SIZE_V1) {
+            in.setDataPosition(start + size - 8);
+            int footerMagic = in.readInt();
+            if (footerMagic == WIRE_FOOTER_MAGIC && size >= FOOTER_SIZE) {
+                in.setDataPosition(start + size - FOOTER_SIZE);
+                in.readInt(); // 内容标志位，仅供延迟解码使用
+                metadataGeneration = in.readInt();
+                playbackStateGeneration = in.readInt();
+                fingerprint = in.readLong();
+                hasFingerprint = true;
+            } else if (footerMagic == WIRE_FOOTER_MAGIC_V1) {
+                in.setDataPosition(start + size - FOOTER_SIZE_V1);
+                fingerprint = in.readLong();
+                hasFingerprint = true;
+            }
+        }
+
+        in.setDataPosition(start + size);
+        return true;
+    }
+
+    private boolean hasLegacyExtra() {
+        return legacyExtraEnabled && (translation != null || duet != null || enhancedLRCData != null);
+    }
+
+    /**
+     * 兼容旧版本接收方，将翻译、对唱与逐字歌词数据以旧版本格式写入 Extra 包的副本
+     */
+    @NonNull
+    private Bundle legacyExtra() {
+        Bundle bundle = extra != null ? new Bundle(extra) : new Bundle();
+        if (translation != null) bundle.putString(KEY_TRANSLATION, translation);
+        if (duet != null) bundle.putBoolean(KEY_DUTE, duet);
+        if (enhancedLRCData != null) bundle.putParcelableArray(KEY_ENHANCED_LRC_DATA, enhancedLRCData.toArray());
+        return bundle;
+    }
+
+    /**
+     * 移除 Extra 包中旧版本格式的数据，扩展数据段中已包含这些数据
+     * <p>
+     * 仅在发送方标记了 {@link #FIELD_LEGACY_EXTRA} 时调用，否则无需展开 Extra 包
+     */
+    private void removeLegacyExtra() {
+        if (extra == null) return;
+
+        extra.remove(KEY_TRANSLATION);
+        extra.remove(KEY_DUTE);
+        extra.remove(KEY_ENHANCED_LRC_DATA);
+        if (extra.isEmpty()) extra = null;
+    }
+
+    /**
+     * 兼容旧版本发送方，将 Extra 包中的已知数据迁移到独立字段
+     */
+    private void readLegacyExtra() {
+        if (extra == null) return;
+
+        if (extra.containsKey(KEY_TRANSLATION)) {
+            translation = extra.getString(KEY_TRANSLATION);
+            extra.remove(KEY_TRANSLATION);
+        }
+        if (extra.containsKey(KEY_DUTE)) {
+            duet = extra.getBoolean(KEY_DUTE, false);
+            extra.remove(KEY_DUTE);
+        }
+        if (extra.containsKey(KEY_ENHANCED_LRC_DATA)) {
+            EnhancedLRCData[] data = null;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU)
+                data = extra.getParcelableArray(KEY_ENHANCED_LRC_DATA, EnhancedLRCData.class);
+            else {
+                Parcelable[] parcelables = extra.getParcelableArray(KEY_ENHANCED_LRC_DATA);
+                if (parcelables != null)
+                    data = Arrays.copyOf(parcelables, parcelables.length, EnhancedLRCData[].class);
+            }
+            if (data != null) enhancedLRCData = PackedEnhancedLRCData.of(data);
+            extra.remove(KEY_ENHANCED_LRC_DATA);
+        }
+        if (extra.isEmpty()) extra = null;
     }
 
     @Override
     public int describeContents() {
+        ensureDecoded();
+        if ((icon != null && icon.hasFileDescriptor()) || (artwork != null && artwork.hasFileDescriptor()))
+            return CONTENTS_FILE_DESCRIPTOR;
         return 0;
     }
 
@@ -510,7 +1707,7 @@ public class SuperLyricData implements Parcelable {
         };
 
         private EnhancedLRCData(@NonNull Parcel in) {
-            word = Optional.ofNullable(in.readString()).orElse("");
+            word = nonNullString(in.readString());
             delay = in.readInt();
         }
 
@@ -0,0 +1,95 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.media.MediaMetadata;
+import android.media.session.PlaybackState;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 增量推送解码器，供接收方使用
+ * <p>
+ * 按包名缓存最近一次完整发送的 MediaMetadata 与 PlaybackState，并据此补全增量数据
+ *
+ * @author 焕晨HChen
+ * @see SuperLyricDeltaEncoder
+ */
+public class SuperLyricDeltaDecoder {
+    private final ConcurrentHashMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 补全增量数据
+     * <p>
+     * 会直接修改并返回传入的数据；世代号不匹配时 (例如接收方刚刚重启) 对应字段保持为 null，直到发送方下一次完整发送
+     * <p>
+     * 携带完整数据时总是覆盖缓存，即使世代号与缓存相同 (例如发送方重启后世代号恰好重复)，避免沿用上一首歌曲的数据
+     */
+    @NonNull
+    public SuperLyricData decode(@NonNull SuperLyricData data) {
+        if (data.metadataGeneration == 0 && data.playbackStateGeneration == 0) return data;
+
+        Snapshot snapshot = snapshots.computeIfAbsent(data.getPackageName(), k -> new Snapshot());
+        synchronized (snapshot) {
+            if (data.metadataGeneration != 0) {
+                if (data.isExistMediaMetadata()) {
+                    snapshot.metadataGeneration = data.metadataGeneration;
+                    snapshot.mediaMetadata = data.getMediaMetadata();
+                } else if (snapshot.metadataGeneration == data.metadataGeneration) {
+                    data.putMediaMetadata(snapshot.mediaMetadata);
+                }
+            }
+            if (data.playbackStateGeneration != 0) {
+                if (data.isExistPlaybackState()) {
+                    snapshot.playbackStateGeneration = data.playbackStateGeneration;
+                    snapshot.playbackState = data.getPlaybackState();
+                } else if (snapshot.playbackStateGeneration == data.playbackStateGeneration) {
+                    data.putPlaybackState(snapshot.playbackState);
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * 移除指定软件的缓存
+     */
+    public void remove(@NonNull String packageName) {
+        snapshots.remove(packageName);
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public void clear() {
+        snapshots.clear();
+    }
+
+    private static final class Snapshot {
+        private int metadataGeneration;
+        @Nullable
+        private MediaMetadata mediaMetadata;
+        private int playbackStateGeneration;
+        @Nullable
+        private PlaybackState playbackState;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.media.MediaMetadata;
+import android.media.session.PlaybackState;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.security.SecureRandom;
+
+/**
+ * 增量推送编码器，供音乐软件使用
+ * <p>
+ * MediaMetadata 与 PlaybackState 只在改变时完整发送，未改变时仅发送世代号，由接收方通过 {@link SuperLyricDeltaDecoder} 恢复
+ * <p>
+ * 为了让重启后的接收方能够恢复数据，每隔一定次数会重新完整发送一次
+ * <p>
+ * 世代号从随机值开始递增，避免发送方重启后复用旧的世代号，使接收方误用上一首歌曲的缓存
+ * <p>
+ * Note：接收方需要使用 {@link SuperLyricDeltaDecoder} 才能获取到完整数据
+ *
+ * @author 焕晨HChen
+ */
+public class SuperLyricDeltaEncoder {
+    /**
+     * 默认每 20 次推送完整发送一次
+     */
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 20;
+    private static final SecureRandom random = new SecureRandom();
+    private final int keyframeInterval;
+    private int pushCount = 0;
+    @NonNull
+    private String packageName = "";
+    @Nullable
+    private MediaMetadata mediaMetadata;
+    private int metadataGeneration = randomGeneration();
+    @Nullable
+    private PlaybackState playbackState;
+    private int playbackStateGeneration = randomGeneration();
+
+    public SuperLyricDeltaEncoder() {
+        this(DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * @param keyframeInterval 每隔多少次推送完整发送一次，小于等于 0 表示仅在数据改变时发送
+     */
+    public SuperLyricDeltaEncoder(int keyframeInterval) {
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * 歌曲暂停
+     *
+     * @see SuperLyricPush#onStop(SuperLyricData)
+     */
+    public void onStop(@NonNull SuperLyricData data) {
+        SuperLyricPush.onStop(encode(data));
+    }
+
+    /**
+     * 歌曲数据更改
+     *
+     * @see SuperLyricPush#onSuperLyric(SuperLyricData)
+     */
+    public void onSuperLyric(@NonNull SuperLyricData data) {
+        SuperLyricPush.onSuperLyric(encode(data));
+    }
+
+    /**
+     * 编码为增量数据
+     * <p>
+     * 不会修改传入的数据
+     */
+    @NonNull
+    public synchronized SuperLyricData encode(@NonNull SuperLyricData data) {
+        if (!packageName.equals(data.getPackageName())) {
+            reset();
+            packageName = data.getPackageName();
+        }
+
+        boolean keyframe = false;
+        if (keyframeInterval > 0 && ++pushCount >= keyframeInterval) {
+            pushCount = 0;
+            keyframe = true;
+        }
+
+        SuperLyricData delta = new SuperLyricData(data);
+        MediaMetadata metadata = data.getMediaMetadata();
+        if (metadata != null) {
+            if (mediaMetadata != null && SuperLyricTool.isSameMediaMetadata(mediaMetadata, metadata)) {
+                if (!keyframe) delta.putMediaMetadata(null);
+            } else {
+                mediaMetadata = metadata;
+                metadataGeneration = nextGeneration(metadataGeneration);
+            }
+            delta.metadataGeneration = metadataGeneration;
+        }
+
+        PlaybackState state = data.getPlaybackState();
+        if (state != null) {
+            if (playbackState != null && SuperLyricTool.isSamePlaybackState(playbackState, state)) {
+                if (!keyframe) delta.putPlaybackState(null);
+            } else {
+                playbackState = state;
+                playbackStateGeneration = nextGeneration(playbackStateGeneration);
+            }
+            delta.playbackStateGeneration = playbackStateGeneration;
+        }
+        return delta;
+    }
+
+    /**
+     * 重置编码器，下一次推送将完整发送所有数据
+     * <p>
+     * 世代号会继续递增而不是归零，确保重置前后的世代号不会相同
+     */
+    public synchronized void reset() {
+        pushCount = 0;
+        mediaMetadata = null;
+        playbackState = null;
+    }
+
+    private static int randomGeneration() {
+        return nextGeneration(random.nextInt());
+    }
+
+    /**
+     * 世代号 0 表示未启用增量推送，因此递增时跳过 0
+     */
+    private static int nextGeneration(int generation) {
+        int next = generation + 1;
+        return next == 0 ? 1 : next;
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 歌词分发器，供接收方使用
+ * <p>
+ * 向系统注册一次，再将歌词分发给多个 {@link SuperLyricListener}，每个监听器拥有独立的有界队列并在各自的 Executor 上执行
+ * <p>
+ * 同一软件尚未处理的 onSuperLyric 只保留最新一条，监听器处理缓慢时会直接跳到最新的歌词；onStop 严格按顺序分发
+ * <p>
+ * 默认不过滤重复推送，可通过 {@link #setDropDuplicates(boolean)} 丢弃与同一软件上一次推送内容指纹相同的数据
+ * <p>
+ * Binder 线程上只将数据放入无锁队列，重复过滤、增量数据补全与延迟解码均在后台的分发线程上按接收顺序执行，
+ * 再分别放入各监听器的队列
+ *
+ * @author 焕晨HChen
+ */
+public class SuperLyricDispatcher extends ISuperLyricAsync.Stub {
+    private static final String TAG = "SuperLyricDispatcher";
+    /**
+     * 默认队列容量
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+    private static final Executor worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SuperLyricDispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final CopyOnWriteArrayList<Channel> channels = new CopyOnWriteArrayList<>();
+    private final SuperLyricDeltaDecoder decoder = new SuperLyricDeltaDecoder();
+    private final SuperLyricDuplicateFilter filter = new SuperLyricDuplicateFilter();
+    private volatile boolean dropDuplicates = false;
+    /**
+     * Binder 线程接收到的事件，元素为 {@link Stop} 或歌词数据，由 {@link #drain()} 在分发线程上依次处理
+     */
+    private final ConcurrentLinkedQueue<Object> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Runnable drain = this::drain;
+
+    public SuperLyricDispatcher() {
+    }
+
+    /**
+     * 注册分发器，系统端重启后会自动重新注册
+     *
+     * @see SuperLyricConnection#registerSuperLyric(Context, ISuperLyricAsync.Stub)
+     */
+    @NonNull
+    public CompletableFuture<Boolean> register(@NonNull Context context) {
+        return SuperLyricConnection.registerSuperLyric(context, this);
+    }
+
+    /**
+     * 注销分发器
+     *
+     * @see SuperLyricConnection#unregisterSuperLyric(Context, ISuperLyricAsync.Stub)
+     */
+    @NonNull
+    public CompletableFuture<Boolean> unregister(@NonNull Context context) {
+        return SuperLyricConnection.unregisterSuperLyric(context, this);
+    }
+
+    /**
+     * 添加监听器，使用默认队列容量
+     *
+     * @param executor 执行回调的线程
+     */
+    public void addListener(@NonNull SuperLyricListener listener, @NonNull Executor executor) {
+        addListener(listener, executor, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 添加监听器
+     *
+     * @param executor 执行回调的线程
+     * @param capacity 队列容量，队列已满时新的歌词将被丢弃，onStop 不受容量限制
+     */
+    public void addListener(@NonNull SuperLyricListener listener, @NonNull Executor executor, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive!");
+        channels.addIfAbsent(new Channel(listener, executor, capacity));
+    }
+
+    /**
+     * 移除监听器，已在队列中的数据将不再分发
+     */
+    public void removeListener(@NonNull SuperLyricListener listener) {
+        for (Channel channel : channels) {
+            if (channel.listener == listener) {
+                channel.closed = true;
+                channels.remove(channel);
+            }
+        }
+    }
+
+    /**
+     * 设置是否丢弃重复推送，默认关闭
+     * <p>
+     * 开启后内容指纹与上一次相同的推送不会分发给监听器，仅以指纹判断，极低概率下可能误判
+     */
+    public void setDropDuplicates(boolean dropDuplicates) {
+        this.dropDuplicates = dropDuplicates;
+        if (!dropDuplicates) filter.clear();
+    }
+
+    /**
+     * 获取监听器因队列已满而丢弃的数据数量
+     */
+    public int getDroppedCount(@NonNull SuperLyricListener listener) {
+        for (Channel channel : channels) {
+            if (channel.listener == listener) return channel.dropped.get();
+        }
+        return 0;
+    }
+
+    @Override
+    public void onStop(SuperLyricData data) {
+        if (data == null) return;
+        SuperLyricMetrics.onStop(data.getPackageName());
+        // 同一实例会分发给多个监听器，不允许任何一个监听器归还
+        data.markShared();
+        inbox.offer(new Stop(data));
+        schedule();
+    }
+
+    @Override
+    public void onSuperLyric(SuperLyricData data) {
+        if (data == null) return;
+        SuperLyricMetrics.onPush(data.getPackageName());
+        data.markShared();
+        inbox.offer(data);
+        schedule();
+    }
+
+    @Override
+    public void onSuperLyricBatch(SuperLyricData[] data) {
+        if (data == null) return;
+        for (SuperLyricData d : data) {
+            onSuperLyric(d);
+        }
+    }
+
+    private void schedule() {
+        if (draining.compareAndSet(false, true)) worker.execute(drain);
+    }
+
+    /**
+     * 在分发线程上按接收顺序处理事件，增量数据必须按顺序补全，因此不能交给各监听器的线程
+     */
+    private void drain() {
+        do {
+            Object event;
+            while ((event = inbox.poll()) != null) {
+                if (event instanceof Stop stop) {
+                    // 过滤使用发送方写入的指纹，重复数据无需解码
+                    if (dropDuplicates && !filter.acceptStop(stop.data)) continue;
+                    decoder.decode(stop.data);
+                    for (Channel channel : channels) {
+                        channel.enqueueStop(stop.data);
+                    }
+                } else {
+                    SuperLyricData data = (SuperLyricData) event;
+                    if (dropDuplicates && !filter.accept(data)) continue;
+                    decoder.decode(data);
+                    for (Channel channel : channels) {
+                        channel.enqueueLyric(data);
+                    }
+                }
+            }
+            draining.set(false);
+        } while (!inbox.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * 单个监听器的队列
+     */
+    private static final class Channel implements Runnable {
+        @NonNull
+        private final SuperLyricListener listener;
+        @NonNull
+        private final Executor executor;
+        private final int capacity;
+        /**
+         * 有序事件队列，元素为 {@link Stop} 或待分发歌词的槽位
+         */
+        private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+        /**
+         * 各软件当前的歌词槽位，槽位入队后新的歌词会直接覆盖其中的数据
+         */
+        private final ConcurrentHashMap<String, AtomicReference<SuperLyricData>> slots = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger dropped = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed = false;
+
+        private Channel(@NonNull SuperLyricListener listener, @NonNull Executor executor, int capacity) {
+            this.listener = listener;
+            this.executor = executor;
+            this.capacity = capacity;
+        }
+
+        private void enqueueLyric(@NonNull SuperLyricData data) {
+            String packageName = data.getPackageName();
+            AtomicReference<SuperLyricData> slot = slots.get(packageName);
+            if (slot == null) {
+                AtomicReference<SuperLyricData> created = new AtomicReference<>();
+                slot = slots.putIfAbsent(packageName, created);
+                if (slot == null) slot = created;
+            }
+
+            if (slot.getAndSet(data) != null) { // 覆盖尚未分发的旧歌词
+                SuperLyricMetrics.onCoalesced(packageName);
+                return;
+            }
+            if (!offer(slot, false)) {
+                // 未入队的槽位不能继续使用，否则之后写入的歌词会被视为已入队而永远不会分发
+                slots.remove(packageName, slot);
+                slot.compareAndSet(data, null);
+                SuperLyricMetrics.onDropped(packageName);
+            }
+        }
+
+        private void enqueueStop(@NonNull SuperLyricData data) {
+            // 封存当前槽位，之后的歌词使用新的槽位排在 onStop 之后
+            slots.remove(data.getPackageName());
+            offer(new Stop(data), true);
+        }
+
+        /**
+         * @param force 是否忽略容量限制，onStop 无法合并，必须送达
+         */
+        private boolean offer(@NonNull Object event, boolean force) {
+            if (closed) return false;
+            if (size.incrementAndGet() > capacity && !force) {
+                size.decrementAndGet();
+                dropped.incrementAndGet();
+                return false;
+            }
+
+            queue.offer(event);
+            if (scheduled.compareAndSet(false, true)) executor.execute(this);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            do {
+                Object event;
+                while ((event = queue.poll()) != null) {
+                    size.decrementAndGet();
+                    if (!closed) dispatch(event);
+                }
+                scheduled.set(false);
+            } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+
+        @SuppressWarnings("unchecked")
+        private void dispatch(@NonNull Object event) {
+            try {
+                SuperLyricData data;
+                if (event instanceof Stop stop) {
+                    data = stop.data;
+                    listener.onStop(data);
+                } else {
+                    data = ((AtomicReference<SuperLyricData>) event).getAndSet(null);
+                    if (data == null) return;
+                    listener.onSuperLyric(data);
+                }
+                SuperLyricMetrics.onHandled(data.publishTime, data.receiveTime);
+            } catch (Throwable e) {
+                Log.w(TAG, "Listener failed: " + listener, e);
+            }
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            return o instanceof Channel channel && channel.listener == listener;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(listener);
+        }
+    }
+
+    private static final class Stop {
+        @NonNull
+        private final SuperLyricData data;
+
+        private Stop(@NonNull SuperLyricData data) {
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重复推送过滤器，发送方与接收方均可使用
+ * <p>
+ * 按包名记录上一次推送的内容指纹，与上一次推送完全相同的数据将被丢弃
+ * <p>
+ * 发送方同时使用 {@link SuperLyricDeltaEncoder} 时，请先过滤再编码
+ *
+ * @author 焕晨HChen
+ * @see SuperLyricData#getFingerprint()
+ */
+public class SuperLyricDuplicateFilter {
+    /**
+     * onStop 与 onSuperLyric 使用不同的指纹，避免相同数据的 onStop 被误判为重复
+     */
+    private static final long STOP_SALT = 0x2545f4914f6cdd1dL;
+    private final ConcurrentHashMap<String, AtomicLong> lasts = new ConcurrentHashMap<>();
+
+    public SuperLyricDuplicateFilter() {
+    }
+
+    /**
+     * 歌曲暂停，非重复数据才会推送
+     *
+     * @see SuperLyricPush#onStop(SuperLyricData)
+     */
+    public void onStop(@NonNull SuperLyricData data) {
+        if (acceptStop(data)) SuperLyricPush.onStop(data);
+    }
+
+    /**
+     * 歌曲数据更改，非重复数据才会推送
+     *
+     * @see SuperLyricPush#onSuperLyric(SuperLyricData)
+     */
+    public void onSuperLyric(@NonNull SuperLyricData data) {
+        if (accept(data)) SuperLyricPush.onSuperLyric(data);
+    }
+
+    /**
+     * 判断 onSuperLyric 数据是否与同一软件的上一次推送不同
+     *
+     * @return 不同时返回 true，并记录为上一次推送
+     */
+    public boolean accept(@NonNull SuperLyricData data) {
+        return update(data.getPackageName(), data.getFingerprint());
+    }
+
+    /**
+     * 判断 onStop 数据是否与同一软件的上一次推送不同
+     *
+     * @return 不同时返回 true，并记录为上一次推送
+     */
+    public boolean acceptStop(@NonNull SuperLyricData data) {
+        return update(data.getPackageName(), data.getFingerprint() ^ STOP_SALT);
+    }
+
+    private boolean update(@NonNull String packageName, long fingerprint) {
+        AtomicLong last = lasts.get(packageName);
+        if (last == null) {
+            AtomicLong created = new AtomicLong(fingerprint);
+            last = lasts.putIfAbsent(packageName, created);
+            if (last == null) return true;
+        }
+        if (last.getAndSet(fingerprint) != fingerprint) return true;
+
+        SuperLyricMetrics.onDuplicate(packageName);
+        return false;
+    }
+
+    /**
+     * 移除指定软件的记录，下一次推送必定通过
+     */
+    public void remove(@NonNull String packageName) {
+        lasts.remove(packageName);
+    }
+
+    /**
+     * 清空全部记录
+     */
+    public void clear() {
+        lasts.clear();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * 歌词事件，由 {@link SuperLyricPublisher} 发布
+ * <p>
+ * Note：同一份数据会发布给所有订阅者，请勿修改
+ *
+ * @author 焕晨HChen
+ */
+public final class SuperLyricEvent {
+    @NonNull
+    private final Type type;
+    @NonNull
+    private final SuperLyricData data;
+
+    SuperLyricEvent(@NonNull Type type, @NonNull SuperLyricData data) {
+        this.type = type;
+        this.data = data;
+    }
+
+    /**
+     * 事件类型
+     */
+    @NonNull
+    public Type getType() {
+        return type;
+    }
+
+    @NonNull
+    public SuperLyricData getData() {
+        return data;
+    }
+
+    /**
+     * 是否为歌曲暂停事件
+     */
+    public boolean isStop() {
+        return type == Type.STOP;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SuperLyricEvent{" +
+                "type=" + type +
+                ", data=" + data +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SuperLyricEvent that)) return false;
+        return type == that.type && Objects.equals(data, that.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, data);
+    }
+
+    public enum Type {
+        /**
+         * 歌曲数据更改
+         *
+         * @see ISuperLyric#onSuperLyric(SuperLyricData)
+         */
+        LYRIC,
+        /**
+         * 歌曲暂停
+         *
+         * @see ISuperLyric#onStop(SuperLyricData)
+         */
+        STOP
+    }
+}
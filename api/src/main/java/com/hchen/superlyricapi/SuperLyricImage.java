@@ -0,0 +1,252 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.os.Parcel;
+import android.os.SharedMemory;
+import android.system.ErrnoException;
+import android.system.OsConstants;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 通过共享内存传递的图片，用于传递软件图标与专辑封面
+ * <p>
+ * 图片像素只写入一次共享内存，Parcel 中仅包含内容哈希、尺寸与共享内存的文件描述符，不会占用 Binder 缓冲区
+ * <p>
+ * 发送方的共享内存由图片实例自身持有，随实例一起被回收，每次写入都会附带文件描述符，错过首次传递的接收方仍能获取像素；
+ * 接收方已缓存同一哈希的图片时会直接关闭收到的共享内存，不会重复解码
+ *
+ * @author 焕晨HChen
+ */
+public final class SuperLyricImage {
+    /**
+     * 接收方缓存的已解码图片大小 (字节)
+     */
+    private static final int RECEIVER_CACHE_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * 发送方缓存，避免同一张图片重复计算哈希与写入共享内存
+     * <p>
+     * 弱引用 Bitmap，不会阻止其被回收；缓存不负责关闭共享内存，仍被使用的图片实例始终可以附带像素
+     */
+    private static final Map<Bitmap, SuperLyricImage> senderCache = new WeakHashMap<>();
+    /**
+     * 接收方缓存，以内容哈希为键
+     */
+    private static final LruCache<Long, Bitmap> receiverCache = new LruCache<>(RECEIVER_CACHE_SIZE) {
+        @Override
+        protected int sizeOf(Long key, Bitmap value) {
+            return value.getAllocationByteCount();
+        }
+    };
+
+    private final long hash;
+    private final int width;
+    private final int height;
+    /**
+     * 图片来源的 Bitmap 世代号，仅发送方使用
+     */
+    private final int generationId;
+    /**
+     * 存放 ARGB_8888 像素的共享内存，发送方在实例被回收时由 SharedMemory 自行关闭，接收方解码后关闭
+     */
+    @Nullable
+    private SharedMemory memory;
+
+    private SuperLyricImage(long hash, int width, int height, int generationId, @Nullable SharedMemory memory) {
+        this.hash = hash;
+        this.width = width;
+        this.height = height;
+        this.generationId = generationId;
+        this.memory = memory;
+    }
+
+    /**
+     * 从 Bitmap 创建图片
+     * <p>
+     * 同一 Bitmap 在内容未改变时会返回缓存的实例
+     *
+     * @throws IllegalStateException 共享内存创建失败
+     */
+    @NonNull
+    @RequiresApi(Build.VERSION_CODES.O_MR1)
+    public static SuperLyricImage of(@NonNull Bitmap bitmap) {
+        synchronized (senderCache) {
+            SuperLyricImage image = senderCache.get(bitmap);
+            if (image != null && image.generationId == bitmap.getGenerationId()) return image;
+        }
+
+        Bitmap source = bitmap.getConfig() == Bitmap.Config.ARGB_8888 ? bitmap : bitmap.copy(Bitmap.Config.ARGB_8888, false);
+        int size = source.getRowBytes() * source.getHeight();
+        try {
+            SharedMemory memory = SharedMemory.create("super_lyric_image", size);
+            ByteBuffer buffer = memory.mapReadWrite();
+            long hash;
+            try {
+                source.copyPixelsToBuffer(buffer);
+                buffer.rewind();
+                hash = hash(buffer, source.getWidth(), source.getHeight());
+            } finally {
+                SharedMemory.unmap(buffer);
+            }
+            memory.setProtect(OsConstants.PROT_READ);
+
+            SuperLyricImage image = new SuperLyricImage(hash, source.getWidth(), source.getHeight(), bitmap.getGenerationId(), memory);
+            synchronized (senderCache) {
+                senderCache.put(bitmap, image);
+            }
+            return image;
+        } catch (ErrnoException e) {
+            throw new IllegalStateException("Failed to create shared memory!", e);
+        }
+    }
+
+    /**
+     * 图片内容哈希，可用于判断图片是否改变
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 获取图片
+     * <p>
+     * 接收方会优先从缓存获取，首次获取时从共享内存解码；发送方尚未附带共享内存且缓存中不存在时返回 null
+     */
+    @Nullable
+    public synchronized Bitmap getBitmap() {
+        Bitmap bitmap = receiverCache.get(hash);
+        if (bitmap != null || memory == null) return bitmap;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O_MR1) return null;
+
+        try {
+            ByteBuffer buffer = memory.mapReadOnly();
+            try {
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                bitmap.copyPixelsFromBuffer(buffer);
+            } finally {
+                SharedMemory.unmap(buffer);
+            }
+            receiverCache.put(hash, bitmap);
+            return bitmap;
+        } catch (ErrnoException | RuntimeException e) {
+            return null;
+        } finally {
+            memory.close();
+            memory = null;
+        }
+    }
+
+    /**
+     * 不持有共享内存的副本，接收方只能从缓存中获取图片
+     */
+    @NonNull
+    SuperLyricImage withoutMemory() {
+        return new SuperLyricImage(hash, width, height, generationId, null);
+    }
+
+    /**
+     * 是否持有共享内存的文件描述符
+     */
+    synchronized boolean hasFileDescriptor() {
+        return memory != null;
+    }
+
+    synchronized void writeToParcel(@NonNull Parcel dest, int flags) {
+        dest.writeLong(hash);
+        dest.writeInt(width);
+        dest.writeInt(height);
+
+        dest.writeInt(memory != null ? 1 : 0);
+        if (memory != null) memory.writeToParcel(dest, flags);
+    }
+
+    @NonNull
+    static SuperLyricImage readFromParcel(@NonNull Parcel in) {
+        long hash = in.readLong();
+        int width = in.readInt();
+        int height = in.readInt();
+
+        SharedMemory memory = null;
+        if (in.readInt() != 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            memory = SharedMemory.CREATOR.createFromParcel(in);
+            // 已缓存的图片无需再次解码
+            if (receiverCache.get(hash) != null) {
+                memory.close();
+                memory = null;
+            }
+        }
+        return new SuperLyricImage(hash, width, height, 0, memory);
+    }
+
+    /**
+     * 64 位内容哈希
+     */
+    private static long hash(@NonNull ByteBuffer buffer, int width, int height) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        long hash = 0xcbf29ce484222325L ^ ((long) width << 32 | height);
+        while (buffer.remaining() >= 8) {
+            hash = Long.rotateLeft(hash ^ buffer.getLong() * 0x9e3779b97f4a7c15L, 31) * 0x100000001b3L;
+        }
+        while (buffer.hasRemaining()) {
+            hash = (hash ^ buffer.get()) * 0x100000001b3L;
+        }
+        return hash ^ (hash >>> 29);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SuperLyricImage{" +
+                "hash=" + Long.toHexString(hash) +
+                ", width=" + width +
+                ", height=" + height +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SuperLyricImage that)) return false;
+        return hash == that.hash && width == that.width && height == that.height;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+}
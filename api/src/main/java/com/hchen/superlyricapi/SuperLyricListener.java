@@ -0,0 +1,42 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 歌词回调
+ * <p>
+ * 与 {@link ISuperLyric} 相同，但不涉及 Binder，由 {@link SuperLyricDispatcher} 在指定线程上调用
+ * <p>
+ * Note：同一份数据会分发给所有监听器，请勿修改
+ *
+ * @author 焕晨HChen
+ */
+public interface SuperLyricListener {
+    /**
+     * 歌曲暂停
+     */
+    void onStop(@NonNull SuperLyricData data);
+
+    /**
+     * 歌曲数据更改
+     */
+    void onSuperLyric(@NonNull SuperLyricData data);
+}
@@ -0,0 +1,436 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 推送与分发的性能统计，默认关闭
+ * <p>
+ * 按包名统计推送、暂停、重复、合并与丢弃的次数，并使用固定内存的对数分桶直方图记录 Parcel 大小与各阶段延迟
+ * <p>
+ * 统计仅针对当前进程：发送方记录发送的 Parcel 大小，接收方记录接收的 Parcel 大小、从发送到接收以及从接收到处理完成的延迟；
+ * 发送到接收的延迟需要发送方同样开启统计
+ * <p>
+ * 关闭时每个统计点只有一次 volatile 读取
+ *
+ * @author 焕晨HChen
+ */
+public final class SuperLyricMetrics {
+    private static volatile boolean enabled = false;
+    private static volatile long since = SystemClock.elapsedRealtime();
+    private static final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+    /**
+     * 发送与接收的 Parcel 大小分别统计，同一进程既发送又接收 (例如转发) 时互不影响
+     */
+    private static final Histogram sentParcelSize = new Histogram();
+    private static final Histogram receivedParcelSize = new Histogram();
+    private static final Histogram publishToReceive = new Histogram();
+    private static final Histogram receiveToHandled = new Histogram();
+
+    private SuperLyricMetrics() {
+    }
+
+    /**
+     * 开启或关闭统计
+     */
+    public static void setEnabled(boolean enabled) {
+        SuperLyricMetrics.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 清空全部统计数据，并重新开始计时
+     */
+    public static void reset() {
+        counters.clear();
+        sentParcelSize.reset();
+        receivedParcelSize.reset();
+        publishToReceive.reset();
+        receiveToHandled.reset();
+        since = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * 获取当前统计数据的快照
+     */
+    @NonNull
+    public static Snapshot snapshot() {
+        Map<String, PackageSnapshot> packages = new HashMap<>();
+        counters.forEach((packageName, c) -> packages.put(packageName, new PackageSnapshot(
+            c.pushes.get(), c.stops.get(), c.duplicates.get(), c.coalesced.get(), c.dropped.get()
+        )));
+        return new Snapshot(SystemClock.elapsedRealtime() - since, packages,
+            sentParcelSize.snapshot(), receivedParcelSize.snapshot(), publishToReceive.snapshot(), receiveToHandled.snapshot());
+    }
+
+    // ------------------------------------ 统计点 ------------------------------------
+
+    static void onPush(@NonNull String packageName) {
+        if (enabled) counters(packageName).pushes.incrementAndGet();
+    }
+
+    static void onStop(@NonNull String packageName) {
+        if (enabled) counters(packageName).stops.incrementAndGet();
+    }
+
+    static void onDuplicate(@NonNull String packageName) {
+        if (enabled) counters(packageName).duplicates.incrementAndGet();
+    }
+
+    static void onCoalesced(@NonNull String packageName) {
+        if (enabled) counters(packageName).coalesced.incrementAndGet();
+    }
+
+    static void onDropped(@NonNull String packageName) {
+        if (enabled) counters(packageName).dropped.incrementAndGet();
+    }
+
+    static void onSentParcelSize(int bytes) {
+        if (enabled) sentParcelSize.record(bytes);
+    }
+
+    static void onReceivedParcelSize(int bytes) {
+        if (enabled) receivedParcelSize.record(bytes);
+    }
+
+    /**
+     * 处理完成
+     *
+     * @param publishTime 发送时间 (elapsedRealtimeNanos)，0 表示未知
+     * @param receiveTime 接收时间 (elapsedRealtimeNanos)，0 表示未知
+     */
+    static void onHandled(long publishTime, long receiveTime) {
+        if (!enabled || receiveTime == 0) return;
+
+        if (publishTime != 0) publishToReceive.record((receiveTime - publishTime) / 1000);
+        receiveToHandled.record((SystemClock.elapsedRealtimeNanos() - receiveTime) / 1000);
+    }
+
+    @NonNull
+    private static Counters counters(@NonNull String packageName) {
+        Counters c = counters.get(packageName);
+        if (c == null) {
+            Counters created = new Counters();
+            c = counters.putIfAbsent(packageName, created);
+            if (c == null) c = created;
+        }
+        return c;
+    }
+
+    private static final class Counters {
+        private final AtomicLong pushes = new AtomicLong();
+        private final AtomicLong stops = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+    }
+
+    /**
+     * 对数分桶直方图，每个 2 的幂区间再均分为 4 个桶，相对误差不超过 25%
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 2;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        // 非负 long 的最高位为第 62 位，最大下标为 ((62 - SUB_BITS + 1) << SUB_BITS) | (SUB_COUNT - 1)
+        private static final int BUCKET_COUNT = (64 - SUB_BITS) * SUB_COUNT;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) value = 0;
+            buckets.incrementAndGet(indexOf(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            long m = max.get();
+            while (value > m && !max.compareAndSet(m, value)) m = max.get();
+        }
+
+        private void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) buckets.set(i, 0);
+            count.set(0);
+            sum.set(0);
+            max.set(0);
+        }
+
+        @NonNull
+        HistogramSnapshot snapshot() {
+            long[] copy = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) copy[i] = buckets.get(i);
+            return new HistogramSnapshot(copy, count.get(), sum.get(), max.get());
+        }
+
+        private static int indexOf(long value) {
+            if (value < SUB_COUNT) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+            return ((exponent - SUB_BITS + 1) << SUB_BITS) | mantissa;
+        }
+
+        /**
+         * 桶的下界 (包含)
+         */
+        private static long lowerBound(int index) {
+            if (index < SUB_COUNT) return index;
+            int exponent = (index >> SUB_BITS) + SUB_BITS - 1;
+            return (long) (SUB_COUNT | (index & (SUB_COUNT - 1))) << (exponent - SUB_BITS);
+        }
+    }
+
+    /**
+     * 统计快照
+     */
+    public static final class Snapshot {
+        private final long elapsedMillis;
+        @NonNull
+        private final Map<String, PackageSnapshot> packages;
+        @NonNull
+        private final HistogramSnapshot sentParcelSize;
+        @NonNull
+        private final HistogramSnapshot receivedParcelSize;
+        @NonNull
+        private final HistogramSnapshot publishToReceive;
+        @NonNull
+        private final HistogramSnapshot receiveToHandled;
+
+        private Snapshot(long elapsedMillis, @NonNull Map<String, PackageSnapshot> packages,
+                         @NonNull HistogramSnapshot sentParcelSize, @NonNull HistogramSnapshot receivedParcelSize,
+                         @NonNull HistogramSnapshot publishToReceive, @NonNull HistogramSnapshot receiveToHandled) {
+            this.elapsedMillis = elapsedMillis;
+            this.packages = Collections.unmodifiableMap(packages);
+            this.sentParcelSize = sentParcelSize;
+            this.receivedParcelSize = receivedParcelSize;
+            this.publishToReceive = publishToReceive;
+            this.receiveToHandled = receiveToHandled;
+        }
+
+        /**
+         * 统计时长 (毫秒)，从开启进程或上一次 {@link #reset()} 开始计算
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * 各软件的计数，以包名为键
+         */
+        @NonNull
+        public Map<String, PackageSnapshot> getPackages() {
+            return packages;
+        }
+
+        /**
+         * 发送的 Parcel 大小 (字节)
+         */
+        @NonNull
+        public HistogramSnapshot getSentParcelSize() {
+            return sentParcelSize;
+        }
+
+        /**
+         * 接收的 Parcel 大小 (字节)
+         */
+        @NonNull
+        public HistogramSnapshot getReceivedParcelSize() {
+            return receivedParcelSize;
+        }
+
+        /**
+         * 从发送到接收的延迟 (微秒)
+         */
+        @NonNull
+        public HistogramSnapshot getPublishToReceive() {
+            return publishToReceive;
+        }
+
+        /**
+         * 从接收到处理完成的延迟 (微秒)，包含排队时间
+         */
+        @NonNull
+        public HistogramSnapshot getReceiveToHandled() {
+            return receiveToHandled;
+        }
+
+        /**
+         * 指定软件每秒的推送次数
+         */
+        public double getPushRate(@NonNull String packageName) {
+            PackageSnapshot snapshot = packages.get(packageName);
+            if (snapshot == null || elapsedMillis <= 0) return 0;
+            return snapshot.pushes * 1000.0 / elapsedMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "elapsedMillis=" + elapsedMillis +
+                    ", packages=" + packages +
+                    ", sentParcelSize=" + sentParcelSize +
+                    ", receivedParcelSize=" + receivedParcelSize +
+                    ", publishToReceive=" + publishToReceive +
+                    ", receiveToHandled=" + receiveToHandled +
+                    '}';
+        }
+    }
+
+    /**
+     * 单个软件的计数快照
+     */
+    public static final class PackageSnapshot {
+        private final long pushes;
+        private final long stops;
+        private final long duplicates;
+        private final long coalesced;
+        private final long dropped;
+
+        private PackageSnapshot(long pushes, long stops, long duplicates, long coalesced, long dropped) {
+            this.pushes = pushes;
+            this.stops = stops;
+            this.duplicates = duplicates;
+            this.coalesced = coalesced;
+            this.dropped = dropped;
+        }
+
+        /**
+         * onSuperLyric 次数
+         */
+        public long getPushes() {
+            return pushes;
+        }
+
+        /**
+         * onStop 次数
+         */
+        public long getStops() {
+            return stops;
+        }
+
+        /**
+         * 因与上一次推送相同而被过滤的次数
+         */
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        /**
+         * 尚未处理就被更新的数据覆盖的次数
+         */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        /**
+         * 因队列已满或未被请求而丢弃的次数
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "PackageSnapshot{" +
+                    "pushes=" + pushes +
+                    ", stops=" + stops +
+                    ", duplicates=" + duplicates +
+                    ", coalesced=" + coalesced +
+                    ", dropped=" + dropped +
+                    '}';
+        }
+    }
+
+    /**
+     * 直方图快照
+     */
+    public static final class HistogramSnapshot {
+        @NonNull
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private HistogramSnapshot(@NonNull long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count > 0 ? (double) sum / count : 0;
+        }
+
+        /**
+         * 获取百分位数，结果为所在桶的上界，不超过最大值
+         *
+         * @param percentile 0 到 100 之间的百分位
+         */
+        public long getPercentile(double percentile) {
+            long total = 0;
+            for (long bucket : buckets) total += bucket;
+            if (total == 0) return 0;
+
+            long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(rank, 1)) {
+                    long upper = i + 1 < buckets.length ? Histogram.lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+                    return Math.min(upper, max);
+                }
+            }
+            return max;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "HistogramSnapshot{" +
+                    "count=" + count +
+                    ", mean=" + getMean() +
+                    ", p50=" + getPercentile(50) +
+                    ", p99=" + getPercentile(99) +
+                    ", max=" + max +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.content.Context;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于 {@link Flow} 的歌词事件发布者，供接收方使用
+ * <p>
+ * 第一个订阅者订阅时自动注册，最后一个订阅者取消订阅时自动注销；每个订阅者按各自的请求数量接收事件，
+ * 超出请求数量的歌词事件按 {@link OverflowStrategy} 处理，onStop 事件不会被合并或丢弃，所有回调都在指定的 Executor 上执行
+ * <p>
+ * 注册失败时所有订阅者以 onError 结束；注册超时不视为失败，系统端启动后仍会完成注册
+ * <p>
+ * Binder 线程只负责入队，不会等待订阅者处理
+ *
+ * @author 焕晨HChen
+ * @see SuperLyricDispatcher
+ */
+@RequiresApi(Build.VERSION_CODES.R)
+public class SuperLyricPublisher implements Flow.Publisher<SuperLyricEvent> {
+    private static final String TAG = "SuperLyricPublisher";
+    /**
+     * 默认缓冲区大小
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 16;
+    @NonNull
+    private final Context context;
+    @NonNull
+    private final Executor executor;
+    @NonNull
+    private final OverflowStrategy strategy;
+    private final int bufferSize;
+    private final SuperLyricDispatcher dispatcher = new SuperLyricDispatcher();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    /**
+     * 只保留最新事件
+     *
+     * @param executor 执行订阅者回调的线程
+     */
+    public SuperLyricPublisher(@NonNull Context context, @NonNull Executor executor) {
+        this(context, executor, OverflowStrategy.LATEST, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param executor   执行订阅者回调的线程
+     * @param strategy   订阅者请求不足时的处理策略
+     * @param bufferSize 缓冲区大小，仅 {@link OverflowStrategy#BUFFER} 使用
+     */
+    public SuperLyricPublisher(@NonNull Context context, @NonNull Executor executor, @NonNull OverflowStrategy strategy, int bufferSize) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive!");
+        this.context = context;
+        this.executor = executor;
+        this.strategy = strategy;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SuperLyricEvent> subscriber) {
+        Subscription subscription = new Subscription(subscriber);
+        boolean first;
+        synchronized (this) {
+            dispatcher.addListener(subscription, Runnable::run);
+            subscriptions.add(subscription);
+            first = subscriptions.size() == 1;
+        }
+        subscription.drain();
+        if (first) dispatcher.register(context).whenComplete((result, throwable) -> onRegistered(throwable));
+    }
+
+    private void onRegistered(@Nullable Throwable throwable) {
+        if (throwable == null) return;
+        if (throwable instanceof CompletionException && throwable.getCause() != null)
+            throwable = throwable.getCause();
+        if (throwable instanceof TimeoutException) {
+            Log.w(TAG, "Register timed out, waiting for system side: " + throwable.getMessage());
+            return;
+        }
+
+        List<Subscription> failed;
+        synchronized (this) {
+            failed = new ArrayList<>(subscriptions);
+        }
+        for (Subscription subscription : failed) {
+            subscription.fail(throwable);
+        }
+    }
+
+    private synchronized void remove(@NonNull Subscription subscription) {
+        dispatcher.removeListener(subscription);
+        if (subscriptions.remove(subscription) && subscriptions.isEmpty()) dispatcher.unregister(context);
+    }
+
+    /**
+     * 订阅者请求不足时的处理策略
+     */
+    public enum OverflowStrategy {
+        /**
+         * 只保留最新的一条歌词事件，较旧的未请求歌词事件被替换
+         */
+        LATEST,
+        /**
+         * 缓冲固定数量的事件，缓冲区已满时丢弃最旧的未请求歌词事件
+         */
+        BUFFER,
+        /**
+         * 不缓冲，直接丢弃订阅者未请求的歌词事件
+         */
+        DROP
+    }
+
+    private final class Subscription implements Flow.Subscription, SuperLyricListener, Runnable {
+        @NonNull
+        private final Flow.Subscriber<? super SuperLyricEvent> subscriber;
+        /**
+         * 待发送的事件，以自身为锁
+         */
+        private final ArrayDeque<SuperLyricEvent> queue = new ArrayDeque<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile Throwable error;
+        private boolean subscribed = false;
+
+        private Subscription(@NonNull Flow.Subscriber<? super SuperLyricEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onStop(@NonNull SuperLyricData data) {
+            offer(new SuperLyricEvent(SuperLyricEvent.Type.STOP, data));
+        }
+
+        @Override
+        public void onSuperLyric(@NonNull SuperLyricData data) {
+            offer(new SuperLyricEvent(SuperLyricEvent.Type.LYRIC, data));
+        }
+
+        private void offer(@NonNull SuperLyricEvent event) {
+            if (cancelled) return;
+
+            synchronized (queue) {
+                // 队列中前 demand 条事件已有请求，之后的歌词事件按策略处理，onStop 始终入队
+                long demand = requested.get();
+                if (event.getType() == SuperLyricEvent.Type.LYRIC && queue.size() >= demand) {
+                    switch (strategy) {
+                        case LATEST -> {
+                            SuperLyricEvent last = queue.peekLast();
+                            if (queue.size() > demand && last.getType() == SuperLyricEvent.Type.LYRIC) {
+                                queue.pollLast();
+                                SuperLyricMetrics.onCoalesced(last.getData().getPackageName());
+                            }
+                        }
+                        case BUFFER -> {
+                            if (queue.size() >= demand + bufferSize && !dropOldestLyric(demand)) {
+                                SuperLyricMetrics.onDropped(event.getData().getPackageName());
+                                return;
+                            }
+                        }
+                        case DROP -> {
+                            SuperLyricMetrics.onDropped(event.getData().getPackageName());
+                            return;
+                        }
+                    }
+                }
+                queue.offer(event);
+            }
+            drain();
+        }
+
+        /**
+         * 丢弃最旧的未请求歌词事件，需持有 queue 锁
+         *
+         * @param demand 已有请求的事件数量
+         * @return 未请求的事件均为 onStop 时返回 false
+         */
+        private boolean dropOldestLyric(long demand) {
+            long index = 0;
+            Iterator<SuperLyricEvent> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                SuperLyricEvent event = iterator.next();
+                if (index++ >= demand && event.getType() == SuperLyricEvent.Type.LYRIC) {
+                    iterator.remove();
+                    SuperLyricMetrics.onDropped(event.getData().getPackageName());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 以错误结束订阅
+         */
+        private void fail(@NonNull Throwable throwable) {
+            error = throwable;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Request must be positive: " + n);
+            } else {
+                long r, next;
+                do {
+                    r = requested.get();
+                    next = r + n < 0 ? Long.MAX_VALUE : r + n;
+                } while (!requested.compareAndSet(r, next));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            remove(this);
+            synchronized (queue) {
+                queue.clear();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() == 0) executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!subscribed) {
+                    subscribed = true;
+                    subscriber.onSubscribe(this);
+                }
+
+                while (!cancelled) {
+                    SuperLyricEvent event;
+                    // 出队与扣减请求数量需保持一致，入队时据此判断事件是否已有请求
+                    synchronized (queue) {
+                        long r = requested.get();
+                        if (r == 0 || (event = queue.poll()) == null) break;
+                        if (r != Long.MAX_VALUE) requested.decrementAndGet();
+                    }
+
+                    try {
+                        subscriber.onNext(event);
+                    } catch (Throwable e) {
+                        Log.w(TAG, "Subscriber failed: " + subscriber, e);
+                        cancel();
+                    }
+                }
+
+                Throwable e = error;
+                if (e != null && !cancelled) {
+                    cancel();
+                    subscriber.onError(e);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
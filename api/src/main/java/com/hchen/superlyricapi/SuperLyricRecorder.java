@@ -0,0 +1,131 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 歌词推送录制器，将收到的 onSuperLyric 与 onStop 写入文件，供 {@link SuperLyricReplayer} 回放
+ * <p>
+ * 文件格式：魔数与版本，之后每个事件依次为相对第一个事件的时间 (纳秒)、事件类型、数据长度与 {@link SuperLyricData#marshall()} 的结果
+ * <p>
+ * 共享内存图片只写入哈希，MediaMetadata 中包含文件描述符的图片也会被去除，回放时图片只能从接收方缓存中获取
+ *
+ * @author 焕晨HChen
+ */
+public final class SuperLyricRecorder implements SuperLyricListener, Closeable {
+    private static final String TAG = "SuperLyricRecorder";
+    static final int FILE_MAGIC = 0x534C5250;
+    static final int FILE_VERSION = 1;
+    static final int TYPE_LYRIC = 0;
+    static final int TYPE_STOP = 1;
+
+    @NonNull
+    private final DataOutputStream out;
+    /**
+     * 第一个事件的时间 (SystemClock.elapsedRealtimeNanos)，-1 表示尚未录制
+     */
+    private long start = -1;
+    private int count = 0;
+    private boolean closed = false;
+
+    /**
+     * 录制到文件，已存在的文件会被覆盖
+     *
+     * @throws IOException 文件打开失败
+     */
+    public SuperLyricRecorder(@NonNull File file) throws IOException {
+        this(new FileOutputStream(file));
+    }
+
+    /**
+     * 录制到输出流，关闭录制器时会关闭输出流
+     *
+     * @throws IOException 写入文件头失败
+     */
+    public SuperLyricRecorder(@NonNull OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(FILE_MAGIC);
+        this.out.writeInt(FILE_VERSION);
+    }
+
+    /**
+     * 已录制的事件数量
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    @Override
+    public void onStop(@NonNull SuperLyricData data) {
+        record(TYPE_STOP, data);
+    }
+
+    @Override
+    public void onSuperLyric(@NonNull SuperLyricData data) {
+        record(TYPE_LYRIC, data);
+    }
+
+    /**
+     * 写入剩余数据并关闭输出流
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        out.close();
+    }
+
+    private void record(int type, @NonNull SuperLyricData data) {
+        long now = SystemClock.elapsedRealtimeNanos();
+        byte[] bytes = marshall(data);
+        synchronized (this) {
+            if (closed) return;
+            if (start < 0) start = now;
+            try {
+                out.writeLong(Math.max(now - start, 0));
+                out.writeByte(type);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                count++;
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to record: " + data.getPackageName(), e);
+            }
+        }
+    }
+
+    @NonNull
+    private static byte[] marshall(@NonNull SuperLyricData data) {
+        // 拷贝并替换图片后再写入，不影响分发给其他监听器的数据与图片实例；发送时间在回放时没有意义
+        SuperLyricData copy = new SuperLyricData(data);
+        copy.detachImages();
+        return copy.marshallFully(0);
+    }
+}
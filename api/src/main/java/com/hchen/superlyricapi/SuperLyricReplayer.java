@@ -0,0 +1,280 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.os.Parcel;
+import android.os.RemoteException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 歌词推送回放器，将 {@link SuperLyricRecorder} 录制的事件按原始节奏、加速或尽快地发送给 {@link ISuperLyric}
+ * <p>
+ * 录制文件会在加载时全部读入内存，回放过程不包含文件读取；每个事件的耗时包含反序列化与回调，与经 Binder 接收时一致
+ * <p>
+ * 仅依赖 Parcel 与 Java 标准库，可在 Robolectric 下于普通 JVM 中运行，回调在调用线程上同步执行
+ *
+ * @author 焕晨HChen
+ */
+public final class SuperLyricReplayer {
+    /**
+     * 不等待，尽快发送全部事件
+     */
+    public static final float AS_FAST_AS_POSSIBLE = Float.POSITIVE_INFINITY;
+
+    @NonNull
+    private final ArrayList<Frame> frames;
+
+    private SuperLyricReplayer(@NonNull ArrayList<Frame> frames) {
+        this.frames = frames;
+    }
+
+    /**
+     * 加载录制文件
+     *
+     * @throws IOException 读取失败或文件格式不正确
+     */
+    @NonNull
+    public static SuperLyricReplayer load(@NonNull File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return load(in);
+        }
+    }
+
+    /**
+     * 从输入流加载录制数据，不会关闭输入流
+     * <p>
+     * 录制中途崩溃导致的不完整事件会被忽略
+     *
+     * @throws IOException 读取失败或文件格式不正确
+     */
+    @NonNull
+    public static SuperLyricReplayer load(@NonNull InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != SuperLyricRecorder.FILE_MAGIC)
+            throw new IOException("Not a super lyric recording!");
+        int version = in.readInt();
+        if (version != SuperLyricRecorder.FILE_VERSION)
+            throw new IOException("Unsupported recording version: " + version);
+
+        ArrayList<Frame> frames = new ArrayList<>();
+        try {
+            while (true) {
+                long time = in.readLong();
+                int type = in.readByte();
+                int length = in.readInt();
+                if (length < 0) throw new IOException("Broken frame length: " + length);
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                frames.add(new Frame(time, type, bytes));
+            }
+        } catch (EOFException ignore) {
+        }
+        return new SuperLyricReplayer(frames);
+    }
+
+    /**
+     * 事件数量
+     */
+    public int getEventCount() {
+        return frames.size();
+    }
+
+    /**
+     * 录制时长 (毫秒)
+     */
+    public long getDurationMillis() {
+        return frames.isEmpty() ? 0 : frames.get(frames.size() - 1).time / 1_000_000;
+    }
+
+    /**
+     * 按原始节奏回放
+     */
+    @NonNull
+    public Result replay(@NonNull ISuperLyric target) {
+        return replay(target, 1);
+    }
+
+    /**
+     * 回放全部事件，阻塞直到完成
+     *
+     * @param speed 回放倍速，例如 10 或 100；{@link #AS_FAST_AS_POSSIBLE} 表示不等待
+     */
+    @NonNull
+    public Result replay(@NonNull ISuperLyric target, float speed) {
+        if (!(speed > 0)) throw new IllegalArgumentException("Speed must be positive!");
+
+        SuperLyricMetrics.Histogram latency = new SuperLyricMetrics.Histogram();
+        SuperLyricMetrics.Histogram lateness = new SuperLyricMetrics.Histogram();
+        boolean paced = !Float.isInfinite(speed);
+        int lyrics = 0;
+        int stops = 0;
+        int failed = 0;
+        long start = System.nanoTime();
+        for (Frame frame : frames) {
+            if (paced) {
+                long due = start + (long) (frame.time / (double) speed);
+                long remaining;
+                while ((remaining = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(remaining);
+                }
+                lateness.record((System.nanoTime() - due) / 1000);
+            }
+
+            long begin = System.nanoTime();
+            Parcel parcel = Parcel.obtain();
+            try {
+                parcel.unmarshall(frame.bytes, 0, frame.bytes.length);
+                SuperLyricData data = SuperLyricData.unmarshall(parcel);
+                if (frame.type == SuperLyricRecorder.TYPE_STOP) {
+                    target.onStop(data);
+                    stops++;
+                } else {
+                    target.onSuperLyric(data);
+                    lyrics++;
+                }
+            } catch (RemoteException | RuntimeException e) {
+                failed++;
+            } finally {
+                parcel.recycle();
+            }
+            latency.record((System.nanoTime() - begin) / 1000);
+        }
+
+        return new Result(lyrics, stops, failed, System.nanoTime() - start, latency.snapshot(),
+            paced ? lateness.snapshot() : null);
+    }
+
+    private static final class Frame {
+        /**
+         * 相对第一个事件的时间 (纳秒)
+         */
+        private final long time;
+        private final int type;
+        @NonNull
+        private final byte[] bytes;
+
+        private Frame(long time, int type, @NonNull byte[] bytes) {
+            this.time = time;
+            this.type = type;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * 回放结果
+     */
+    public static final class Result {
+        private final int lyrics;
+        private final int stops;
+        private final int failed;
+        private final long elapsedNanos;
+        @NonNull
+        private final SuperLyricMetrics.HistogramSnapshot latency;
+        @Nullable
+        private final SuperLyricMetrics.HistogramSnapshot lateness;
+
+        private Result(int lyrics, int stops, int failed, long elapsedNanos,
+                       @NonNull SuperLyricMetrics.HistogramSnapshot latency,
+                       @Nullable SuperLyricMetrics.HistogramSnapshot lateness) {
+            this.lyrics = lyrics;
+            this.stops = stops;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+            this.lateness = lateness;
+        }
+
+        /**
+         * 已发送的 onSuperLyric 数量
+         */
+        public int getLyricCount() {
+            return lyrics;
+        }
+
+        /**
+         * 已发送的 onStop 数量
+         */
+        public int getStopCount() {
+            return stops;
+        }
+
+        /**
+         * 反序列化失败或回调抛出异常的事件数量
+         */
+        public int getFailedCount() {
+            return failed;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * 每秒处理的事件数量
+         */
+        public double getThroughput() {
+            int events = lyrics + stops + failed;
+            return elapsedNanos > 0 ? events * 1e9 / elapsedNanos : 0;
+        }
+
+        /**
+         * 每个事件反序列化与回调的耗时 (微秒)
+         */
+        @NonNull
+        public SuperLyricMetrics.HistogramSnapshot getLatency() {
+            return latency;
+        }
+
+        /**
+         * 每个事件实际发送时间晚于计划时间的程度 (微秒)，尽快回放时为 null
+         * <p>
+         * 数值持续增大说明接收方处理速度跟不上回放倍速
+         */
+        @Nullable
+        public SuperLyricMetrics.HistogramSnapshot getLateness() {
+            return lateness;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "lyrics=" + lyrics +
+                    ", stops=" + stops +
+                    ", failed=" + failed +
+                    ", elapsedMillis=" + elapsedNanos / 1_000_000 +
+                    ", throughput=" + getThroughput() +
+                    ", latency=" + latency +
+                    ", lateness=" + lateness +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.media.MediaMetadata;
+import android.media.session.PlaybackState;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多软件会话管理器，供接收方使用
+ * <p>
+ * 按包名保存各软件最近一次的歌词、MediaMetadata、PlaybackState 与更新时间，根据 {@link Policy} 选出当前会话，
+ * 并只将当前会话的歌词按顺序转发给 {@link Callback}
+ * <p>
+ * 作为 {@link SuperLyricListener} 添加到 {@link SuperLyricDispatcher} 即可使用，回调在分发器指定的线程上按顺序执行；
+ * 读取会话的方法不使用锁，可在 UI 线程直接调用
+ * <p>
+ * 未在播放且超过 {@link #setIdleTimeout(long)} 未更新的会话会在下一次收到数据时移除；软件退出时也可调用 {@link #remove(String)} 立即移除
+ *
+ * @author 焕晨HChen
+ */
+public class SuperLyricSessionManager implements SuperLyricListener {
+    private static final String TAG = "SuperLyricSessionManager";
+    /**
+     * 默认的空闲超时时间 (毫秒)
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = 30 * 60 * 1000;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Callback> callbacks = new CopyOnWriteArrayList<>();
+    @NonNull
+    private volatile Policy policy = Policy.mostRecentlyPlaying();
+    @Nullable
+    private volatile Session active;
+    private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    public SuperLyricSessionManager() {
+    }
+
+    /**
+     * 设置选择当前会话的策略，默认为 {@link Policy#mostRecentlyPlaying()}
+     * <p>
+     * 新的策略将在下一次收到数据时生效
+     */
+    public void setPolicy(@NonNull Policy policy) {
+        this.policy = policy;
+    }
+
+    @NonNull
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 设置空闲超时时间，默认 {@link #DEFAULT_IDLE_TIMEOUT}
+     * <p>
+     * 未在播放且超过此时间未更新的会话将被移除，小于等于 0 表示不自动移除，此时请在软件退出时调用 {@link #remove(String)}
+     *
+     * @param millis 超时时间 (毫秒)
+     */
+    public void setIdleTimeout(long millis) {
+        idleTimeout = millis;
+    }
+
+    public void addCallback(@NonNull Callback callback) {
+        callbacks.addIfAbsent(callback);
+    }
+
+    public void removeCallback(@NonNull Callback callback) {
+        callbacks.remove(callback);
+    }
+
+    /**
+     * 获取当前会话，不存在时返回 null
+     */
+    @Nullable
+    public Session getActiveSession() {
+        return active;
+    }
+
+    /**
+     * 获取指定软件的会话，不存在时返回 null
+     */
+    @Nullable
+    public Session getSession(@NonNull String packageName) {
+        return sessions.get(packageName);
+    }
+
+    /**
+     * 获取全部会话
+     */
+    @NonNull
+    public Collection<Session> getSessions() {
+        return Collections.unmodifiableCollection(new ArrayList<>(sessions.values()));
+    }
+
+    /**
+     * 移除指定软件的会话，例如软件已退出
+     * <p>
+     * 请在分发器回调所在的线程调用，以保证事件顺序
+     */
+    public void remove(@NonNull String packageName) {
+        sessions.remove(packageName);
+        Session current = active;
+        if (current != null && current.packageName.equals(packageName)) select(null, null, false);
+    }
+
+    @Override
+    public void onStop(@NonNull SuperLyricData data) {
+        Session previous = sessions.get(data.getPackageName());
+        Session session = new Session(previous, data, false);
+        sessions.put(session.packageName, session);
+        select(session, data, true);
+    }
+
+    @Override
+    public void onSuperLyric(@NonNull SuperLyricData data) {
+        Session previous = sessions.get(data.getPackageName());
+        PlaybackState state = data.getPlaybackState();
+        // 推送中未携带 PlaybackState 时沿用上一次的状态，避免将已暂停的会话误判为正在播放
+        if (state == null && previous != null) state = previous.playbackState;
+        boolean playing = state == null || state.getState() == PlaybackState.STATE_PLAYING || state.getState() == PlaybackState.STATE_BUFFERING;
+        Session session = new Session(previous, data, playing);
+        sessions.put(session.packageName, session);
+        select(session, data, false);
+    }
+
+    /**
+     * 重新选择当前会话，并将事件转发给回调
+     *
+     * @param updated 本次更新的会话
+     * @param data    本次收到的数据
+     * @param stop    是否为 onStop
+     */
+    private void select(@Nullable Session updated, @Nullable SuperLyricData data, boolean stop) {
+        removeIdleSessions();
+        Session current = active;
+        Session selected = policy.select(Collections.unmodifiableCollection(sessions.values()), current);
+        active = selected;
+
+        String currentPackage = current != null ? current.packageName : null;
+        String selectedPackage = selected != null ? selected.packageName : null;
+        boolean changed = !Objects.equals(currentPackage, selectedPackage);
+        boolean forward = data != null && selected != null && selected == updated;
+        if (!changed && !forward) return;
+
+        for (Callback callback : callbacks) {
+            try {
+                if (changed) callback.onActiveSessionChanged(selected);
+                if (!forward) continue;
+
+                if (stop) callback.onStop(data);
+                else callback.onSuperLyric(data);
+            } catch (Throwable e) {
+                Log.w(TAG, "Callback failed: " + callback, e);
+            }
+        }
+    }
+
+    /**
+     * 移除未在播放且超时未更新的会话
+     */
+    private void removeIdleSessions() {
+        long timeout = idleTimeout;
+        if (timeout <= 0) return;
+
+        long deadline = SystemClock.elapsedRealtime() - timeout;
+        sessions.values().removeIf(session -> !session.playing && session.updateTime < deadline);
+    }
+
+    /**
+     * 单个软件的会话快照，不可变
+     */
+    public static final class Session {
+        private static final AtomicLong sequence = new AtomicLong();
+        @NonNull
+        private final String packageName;
+        @NonNull
+        private final SuperLyricData lastData;
+        @NonNull
+        private final String lyric;
+        @Nullable
+        private final MediaMetadata mediaMetadata;
+        @Nullable
+        private final PlaybackState playbackState;
+        private final boolean playing;
+        private final long updateTime;
+        private final long playStartTime;
+        /**
+         * 开始播放的顺序，避免同一毫秒内开始播放时无法区分先后
+         */
+        private final long playOrder;
+
+        private Session(@Nullable Session previous, @NonNull SuperLyricData data, boolean playing) {
+            long now = SystemClock.elapsedRealtime();
+            packageName = data.getPackageName();
+            lastData = data;
+            // 推送中未携带的数据沿用上一次的值
+            lyric = data.isExistLyric() || previous == null ? data.getLyric() : previous.lyric;
+            mediaMetadata = data.isExistMediaMetadata() || previous == null ? data.getMediaMetadata() : previous.mediaMetadata;
+            playbackState = data.isExistPlaybackState() || previous == null ? data.getPlaybackState() : previous.playbackState;
+            this.playing = playing;
+            updateTime = now;
+            boolean resumed = playing && (previous == null || !previous.playing);
+            playStartTime = resumed ? now : playing ? previous.playStartTime : 0;
+            playOrder = resumed ? sequence.incrementAndGet() : playing ? previous.playOrder : 0;
+        }
+
+        @NonNull
+        public String getPackageName() {
+            return packageName;
+        }
+
+        /**
+         * 最近一次收到的数据
+         */
+        @NonNull
+        public SuperLyricData getLastData() {
+            return lastData;
+        }
+
+        /**
+         * 最近一次的歌词，onStop 不会清除
+         */
+        @NonNull
+        public String getLyric() {
+            return lyric;
+        }
+
+        @Nullable
+        public MediaMetadata getMediaMetadata() {
+            return mediaMetadata;
+        }
+
+        @Nullable
+        public PlaybackState getPlaybackState() {
+            return playbackState;
+        }
+
+        /**
+         * 是否正在播放
+         */
+        public boolean isPlaying() {
+            return playing;
+        }
+
+        /**
+         * 最近一次更新的时间 (elapsedRealtime)
+         */
+        public long getUpdateTime() {
+            return updateTime;
+        }
+
+        /**
+         * 开始播放的时间 (elapsedRealtime)，未在播放时为 0
+         */
+        public long getPlayStartTime() {
+            return playStartTime;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Session{" +
+                    "packageName='" + packageName + '\'' +
+                    ", lyric='" + lyric + '\'' +
+                    ", playing=" + playing +
+                    ", updateTime=" + updateTime +
+                    '}';
+        }
+    }
+
+    /**
+     * 选择当前会话的策略
+     */
+    public interface Policy {
+        /**
+         * 选择当前会话
+         *
+         * @param sessions 全部会话
+         * @param current  当前会话
+         * @return 新的当前会话，不存在时返回 null
+         */
+        @Nullable
+        Session select(@NonNull Collection<Session> sessions, @Nullable Session current);
+
+        /**
+         * 最近开始播放的软件；没有正在播放的软件时保持当前会话
+         */
+        @NonNull
+        static Policy mostRecentlyPlaying() {
+            return (sessions, current) -> {
+                Session selected = null;
+                for (Session session : sessions) {
+                    if (session.playing && (selected == null || session.playOrder > selected.playOrder))
+                        selected = session;
+                }
+                if (selected != null || current == null) return selected;
+
+                // 保持当前会话，使用其最新的快照；已被移除时不再保留
+                for (Session session : sessions) {
+                    if (session.packageName.equals(current.packageName)) return session;
+                }
+                return null;
+            };
+        }
+
+        /**
+         * 按优先级选择正在播放的软件，列表中靠前的优先；列表中没有正在播放的软件时按 {@link #mostRecentlyPlaying()} 选择
+         */
+        @NonNull
+        static Policy priority(@NonNull String... packageNames) {
+            List<String> priority = Arrays.asList(packageNames.clone());
+            Policy fallback = mostRecentlyPlaying();
+            return (sessions, current) -> {
+                Session selected = null;
+                int rank = Integer.MAX_VALUE;
+                for (Session session : sessions) {
+                    int index = priority.indexOf(session.packageName);
+                    if (session.playing && index >= 0 && index < rank) {
+                        selected = session;
+                        rank = index;
+                    }
+                }
+                return selected != null ? selected : fallback.select(sessions, current);
+            };
+        }
+
+        /**
+         * 固定为指定软件，无论其是否正在播放
+         */
+        @NonNull
+        static Policy pinned(@NonNull String packageName) {
+            return (sessions, current) -> {
+                for (Session session : sessions) {
+                    if (session.packageName.equals(packageName)) return session;
+                }
+                return null;
+            };
+        }
+    }
+
+    /**
+     * 当前会话的事件回调
+     */
+    public interface Callback extends SuperLyricListener {
+        /**
+         * 当前会话改变
+         *
+         * @param session 新的当前会话，不存在时为 null
+         */
+        void onActiveSessionChanged(@Nullable Session session);
+    }
+}
@@ -0,0 +1,620 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.os.Parcel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 整首歌曲的歌词时间轴
+ * <p>
+ * 音乐软件可在切换歌曲时一次性发送全部歌词，接收方根据播放进度自行查找当前歌词，无需逐行推送
+ * <p>
+ * 所有歌词拼接为一段文本，时间与位置均使用 int 数组存储，查找当前行与当前单词均为二分查找
+ *
+ * @author 焕晨HChen
+ */
+public final class SuperLyricTimeline {
+    /**
+     * 每行歌词的开始时间 (毫秒)，升序
+     */
+    @NonNull
+    private final int[] lineTimes;
+    /**
+     * 所有歌词拼接后的文本
+     */
+    @NonNull
+    private final String text;
+    /**
+     * 每行歌词在文本中的起始位置，长度为行数 + 1
+     */
+    @NonNull
+    private final int[] lineOffsets;
+    /**
+     * 所有翻译拼接后的文本
+     */
+    @Nullable
+    private final String translationText;
+    /**
+     * 每行翻译在翻译文本中的起始位置，长度为行数 + 1，空翻译的起止位置相同
+     */
+    @Nullable
+    private final int[] translationOffsets;
+    /**
+     * 每行歌词第一个单词的下标，长度为行数 + 1
+     */
+    @Nullable
+    private final int[] lineWords;
+    /**
+     * 每个单词的开始时间 (毫秒)
+     */
+    @Nullable
+    private final int[] wordTimes;
+    /**
+     * 每个单词的持续时间 (毫秒)
+     */
+    @Nullable
+    private final int[] wordDurations;
+    /**
+     * 每个单词在文本中的起始位置
+     */
+    @Nullable
+    private final int[] wordOffsets;
+    /**
+     * 哈希值缓存，0 表示尚未计算
+     */
+    private int hash;
+    /**
+     * 64 位内容指纹缓存，0 表示尚未计算
+     */
+    private long contentHash;
+
+    SuperLyricTimeline(@NonNull int[] lineTimes, @NonNull String text, @NonNull int[] lineOffsets,
+                       @Nullable String translationText, @Nullable int[] translationOffsets,
+                       @Nullable int[] lineWords, @Nullable int[] wordTimes,
+                       @Nullable int[] wordDurations, @Nullable int[] wordOffsets) {
+        if (lineOffsets.length != lineTimes.length + 1)
+            throw new IllegalArgumentException("Line offsets length must be line count + 1!");
+        if ((translationText == null) != (translationOffsets == null) ||
+            (translationOffsets != null && translationOffsets.length != lineOffsets.length))
+            throw new IllegalArgumentException("Broken translation data!");
+        if (lineWords != null) {
+            if (wordTimes == null || wordDurations == null || wordOffsets == null ||
+                lineWords.length != lineOffsets.length ||
+                wordTimes.length != lineWords[lineWords.length - 1] ||
+                wordDurations.length != wordTimes.length || wordOffsets.length != wordTimes.length)
+                throw new IllegalArgumentException("Broken word data!");
+        } else if (wordTimes != null || wordDurations != null || wordOffsets != null)
+            throw new IllegalArgumentException("Broken word data!");
+
+        this.lineTimes = lineTimes;
+        this.text = text;
+        this.lineOffsets = lineOffsets;
+        this.translationText = translationText;
+        this.translationOffsets = translationOffsets;
+        this.lineWords = lineWords;
+        this.wordTimes = wordTimes;
+        this.wordDurations = wordDurations;
+        this.wordOffsets = wordOffsets;
+    }
+
+    /**
+     * 歌词行数
+     */
+    public int getLineCount() {
+        return lineTimes.length;
+    }
+
+    /**
+     * 歌词行的开始时间 (毫秒)
+     */
+    public int getLineTime(int line) {
+        return lineTimes[line];
+    }
+
+    /**
+     * 歌词行的结束时间 (毫秒)，即下一行的开始时间，最后一行返回 {@link Integer#MAX_VALUE}
+     */
+    public int getLineEndTime(int line) {
+        return line + 1 < lineTimes.length ? lineTimes[line + 1] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 所有歌词拼接后的文本
+     */
+    @NonNull
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 歌词行在文本中的起始位置
+     */
+    public int getLineStart(int line) {
+        return lineOffsets[line];
+    }
+
+    /**
+     * 歌词行在文本中的结束位置 (不包含)
+     */
+    public int getLineEnd(int line) {
+        return lineOffsets[line + 1];
+    }
+
+    /**
+     * 获取歌词行
+     * <p>
+     * Note：会创建新的字符串
+     */
+    @NonNull
+    public String getLine(int line) {
+        return text.substring(lineOffsets[line], lineOffsets[line + 1]);
+    }
+
+    /**
+     * 是否存在翻译数据
+     */
+    public boolean isExistTranslation() {
+        return translationText != null;
+    }
+
+    /**
+     * 获取歌词行的翻译，不存在时返回 null
+     */
+    @Nullable
+    public String getTranslation(int line) {
+        if (translationText == null || translationOffsets == null) return null;
+
+        int start = translationOffsets[line];
+        int end = translationOffsets[line + 1];
+        return start == end ? null : translationText.substring(start, end);
+    }
+
+    /**
+     * 是否存在逐字歌词数据
+     */
+    public boolean isExistWords() {
+        return lineWords != null;
+    }
+
+    /**
+     * 歌词行的单词数量
+     */
+    public int getWordCount(int line) {
+        return lineWords != null ? lineWords[line + 1] - lineWords[line] : 0;
+    }
+
+    /**
+     * 歌词行第一个单词的下标，单词下标在整首歌曲中连续
+     */
+    public int getFirstWord(int line) {
+        return lineWords != null ? lineWords[line] : 0;
+    }
+
+    /**
+     * 单词的开始时间 (毫秒)
+     */
+    public int getWordTime(int word) {
+        return Objects.requireNonNull(wordTimes)[word];
+    }
+
+    /**
+     * 单词的持续时间 (毫秒)
+     */
+    public int getWordDuration(int word) {
+        return Objects.requireNonNull(wordDurations)[word];
+    }
+
+    /**
+     * 单词在文本中的起始位置
+     */
+    public int getWordStart(int word) {
+        return Objects.requireNonNull(wordOffsets)[word];
+    }
+
+    /**
+     * 单词在文本中的结束位置 (不包含)
+     */
+    public int getWordEnd(int word, int line) {
+        int[] offsets = Objects.requireNonNull(wordOffsets);
+        return word + 1 < Objects.requireNonNull(lineWords)[line + 1] ? offsets[word + 1] : lineOffsets[line + 1];
+    }
+
+    /**
+     * 获取歌词行的逐字歌词数据，不存在时返回 null
+     * <p>
+     * Note：会创建新的对象
+     */
+    @Nullable
+    public PackedEnhancedLRCData getWords(int line) {
+        if (lineWords == null || wordDurations == null || wordOffsets == null) return null;
+
+        int first = lineWords[line];
+        int count = lineWords[line + 1] - first;
+        if (count == 0) return null;
+
+        int lineStart = lineOffsets[line];
+        int[] offsets = new int[count + 1];
+        for (int i = 1; i < count; i++) {
+            offsets[i] = wordOffsets[first + i] - lineStart;
+        }
+        // 第一个单词之前的文本并入第一个单词
+        offsets[count] = lineOffsets[line + 1] - lineStart;
+        return PackedEnhancedLRCData.wrap(getLine(line), offsets, Arrays.copyOfRange(wordDurations, first, first + count));
+    }
+
+    /**
+     * 查找播放进度对应的歌词行
+     *
+     * @param position 播放进度 (毫秒)
+     * @return 歌词行下标，进度早于第一行时返回 -1
+     */
+    public int indexOfLine(long position) {
+        return floor(lineTimes, 0, lineTimes.length, position);
+    }
+
+    /**
+     * 查找播放进度对应的单词
+     *
+     * @param line     歌词行下标
+     * @param position 播放进度 (毫秒)
+     * @return 单词下标，不存在单词或进度早于第一个单词时返回 -1
+     */
+    public int indexOfWord(int line, long position) {
+        if (lineWords == null || wordTimes == null || line < 0) return -1;
+        int first = lineWords[line];
+        return floor(wordTimes, first, lineWords[line + 1], position);
+    }
+
+    /**
+     * 在 [from, to) 中查找最后一个不大于 value 的下标，不存在时返回 -1
+     */
+    static int floor(@NonNull int[] array, int from, int to, long value) {
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] <= value) low = mid + 1;
+            else high = mid - 1;
+        }
+        return high >= from ? high : -1;
+    }
+
+    /**
+     * 按序列化后的全部数据计算的 64 位内容指纹，用于判断内容是否改变
+     */
+    long contentHash() {
+        long h = contentHash;
+        if (h == 0) {
+            h = Fingerprint.of(this::writeToParcel);
+            contentHash = h;
+        }
+        return h;
+    }
+
+    void writeToParcel(@NonNull Parcel dest) {
+        dest.writeIntArray(lineTimes);
+        writeBodyToParcel(dest);
+    }
+
+    /**
+     * 写入除开始时间以外的数据，供 {@link SuperLyricTracks} 共用开始时间
+     */
+    void writeBodyToParcel(@NonNull Parcel dest) {
+        dest.writeString(text);
+        dest.writeIntArray(lineOffsets);
+        dest.writeString(translationText);
+        dest.writeIntArray(translationOffsets);
+        dest.writeIntArray(lineWords);
+        dest.writeIntArray(wordTimes);
+        dest.writeIntArray(wordDurations);
+        dest.writeIntArray(wordOffsets);
+    }
+
+    @NonNull
+    static SuperLyricTimeline readFromParcel(@NonNull Parcel in) {
+        int[] lineTimes = in.createIntArray();
+        if (lineTimes == null) throw new IllegalArgumentException("Broken timeline data!");
+        return readBodyFromParcel(in, lineTimes);
+    }
+
+    /**
+     * 读取 {@link #writeBodyToParcel(Parcel)} 写入的数据
+     */
+    @NonNull
+    static SuperLyricTimeline readBodyFromParcel(@NonNull Parcel in, @NonNull int[] lineTimes) {
+        String text = in.readString();
+        int[] lineOffsets = in.createIntArray();
+        if (text == null || lineOffsets == null)
+            throw new IllegalArgumentException("Broken timeline data!");
+
+        return new SuperLyricTimeline(
+            lineTimes, text, lineOffsets,
+            in.readString(), in.createIntArray(),
+            in.createIntArray(), in.createIntArray(), in.createIntArray(), in.createIntArray()
+        );
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SuperLyricTimeline{" +
+                "lines=" + lineTimes.length +
+                ", words=" + (wordTimes != null ? wordTimes.length : 0) +
+                ", translation=" + (translationText != null) +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SuperLyricTimeline that)) return false;
+        return Arrays.equals(lineTimes, that.lineTimes) &&
+                Objects.equals(text, that.text) &&
+                Arrays.equals(lineOffsets, that.lineOffsets) &&
+                Objects.equals(translationText, that.translationText) &&
+                Arrays.equals(translationOffsets, that.translationOffsets) &&
+                Arrays.equals(lineWords, that.lineWords) &&
+                Arrays.equals(wordTimes, that.wordTimes) &&
+                Arrays.equals(wordDurations, that.wordDurations) &&
+                Arrays.equals(wordOffsets, that.wordOffsets);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(text, translationText, Arrays.hashCode(lineTimes), Arrays.hashCode(lineOffsets),
+                Arrays.hashCode(translationOffsets), Arrays.hashCode(lineWords), Arrays.hashCode(wordTimes),
+                Arrays.hashCode(wordDurations), Arrays.hashCode(wordOffsets));
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * 时间轴构建器
+     * <p>
+     * 歌词行可按任意顺序添加，构建时会按开始时间稳定排序
+     */
+    public static final class Builder {
+        private int lineCount = 0;
+        private int[] lineTimes = new int[16];
+        private final StringBuilder text = new StringBuilder();
+        private int[] lineOffsets = new int[17];
+        @Nullable
+        private StringBuilder translationText;
+        @Nullable
+        private int[] translationOffsets;
+        private int wordCount = 0;
+        @Nullable
+        private int[] lineWords;
+        private int[] wordTimes = new int[0];
+        private int[] wordDurations = new int[0];
+        private int[] wordOffsets = new int[0];
+
+        public Builder() {
+        }
+
+        /**
+         * 添加歌词行
+         *
+         * @param time 开始时间 (毫秒)
+         */
+        @NonNull
+        public Builder addLine(int time, @NonNull CharSequence line) {
+            return addLine(time, line, null);
+        }
+
+        /**
+         * 添加带翻译的歌词行
+         *
+         * @param time        开始时间 (毫秒)
+         * @param translation 翻译，可为 null
+         */
+        @NonNull
+        public Builder addLine(int time, @NonNull CharSequence line, @Nullable CharSequence translation) {
+            beginLine(time, translation);
+            text.append(line);
+            return this;
+        }
+
+        /**
+         * 添加逐字歌词行，歌词行文本为全部单词拼接
+         *
+         * @param time        开始时间 (毫秒)，第一个单词从此时开始，之后每个单词依次在上一个单词结束后开始
+         * @param words       逐字歌词数据
+         * @param translation 翻译，可为 null
+         */
+        @NonNull
+        public Builder addLine(int time, @NonNull PackedEnhancedLRCData words, @Nullable CharSequence translation) {
+            beginLine(time, translation);
+            appendWords(time, words);
+            return this;
+        }
+
+        /**
+         * 添加逐字歌词行
+         *
+         * @see #addLine(int, PackedEnhancedLRCData, CharSequence)
+         */
+        @NonNull
+        public Builder addLine(int time, @NonNull SuperLyricData.EnhancedLRCData[] words, @Nullable CharSequence translation) {
+            return addLine(time, PackedEnhancedLRCData.of(words), translation);
+        }
+
+        /**
+         * 开始新的一行，之后追加的文本与单词均属于此行
+         */
+        void beginLine(int time, @Nullable CharSequence translation) {
+            if (lineCount == lineTimes.length) {
+                lineTimes = Arrays.copyOf(lineTimes, lineCount * 2);
+                lineOffsets = Arrays.copyOf(lineOffsets, lineCount * 2 + 1);
+                if (translationOffsets != null)
+                    translationOffsets = Arrays.copyOf(translationOffsets, lineCount * 2 + 1);
+                if (lineWords != null) lineWords = Arrays.copyOf(lineWords, lineCount * 2 + 1);
+            }
+
+            if (translation != null && translationText == null) {
+                translationText = new StringBuilder();
+                translationOffsets = new int[lineOffsets.length];
+            }
+            if (translationText != null && translationOffsets != null) {
+                translationOffsets[lineCount] = translationText.length();
+                if (translation != null) translationText.append(translation);
+            }
+            if (lineWords != null) lineWords[lineCount] = wordCount;
+
+            lineTimes[lineCount] = time;
+            lineOffsets[lineCount] = text.length();
+            lineCount++;
+        }
+
+        /**
+         * 文本当前长度
+         */
+        int textLength() {
+            return text.length();
+        }
+
+        /**
+         * 向当前行追加文本
+         */
+        void appendText(@NonNull CharSequence s, int start, int end) {
+            text.append(s, start, end);
+        }
+
+        /**
+         * 向当前行追加逐字歌词，第一个单词从 time 开始，之后每个单词依次在上一个单词结束后开始
+         */
+        void appendWords(int time, @NonNull PackedEnhancedLRCData words) {
+            int lineStart = text.length();
+            text.append(words.getText());
+
+            int wordTime = time;
+            for (int i = 0; i < words.getWordCount(); i++) {
+                addWord(wordTime, words.getDelay(i), lineStart + words.getWordStart(i));
+                wordTime += words.getDelay(i);
+            }
+        }
+
+        /**
+         * 平移全部歌词行与单词的开始时间
+         */
+        void shift(int delta) {
+            if (delta == 0) return;
+            for (int i = 0; i < lineCount; i++) {
+                lineTimes[i] += delta;
+            }
+            for (int i = 0; i < wordCount; i++) {
+                wordTimes[i] += delta;
+            }
+        }
+
+        /**
+         * 为当前行添加单词
+         *
+         * @param offset 单词在文本中的起始位置
+         */
+        void addWord(int time, int duration, int offset) {
+            if (lineWords == null) lineWords = new int[lineOffsets.length];
+            if (wordCount == wordTimes.length) {
+                int capacity = Math.max(16, wordCount * 2);
+                wordTimes = Arrays.copyOf(wordTimes, capacity);
+                wordDurations = Arrays.copyOf(wordDurations, capacity);
+                wordOffsets = Arrays.copyOf(wordOffsets, capacity);
+            }
+
+            wordTimes[wordCount] = time;
+            wordDurations[wordCount] = duration;
+            wordOffsets[wordCount] = offset;
+            wordCount++;
+        }
+
+        @NonNull
+        public SuperLyricTimeline build() {
+            int[] lineOffsets = Arrays.copyOf(this.lineOffsets, lineCount + 1);
+            lineOffsets[lineCount] = text.length();
+            int[] translationOffsets = null;
+            if (this.translationOffsets != null && translationText != null) {
+                translationOffsets = Arrays.copyOf(this.translationOffsets, lineCount + 1);
+                translationOffsets[lineCount] = translationText.length();
+            }
+            int[] lineWords = null;
+            if (this.lineWords != null) {
+                lineWords = Arrays.copyOf(this.lineWords, lineCount + 1);
+                lineWords[lineCount] = wordCount;
+            }
+
+            if (isSorted()) {
+                return new SuperLyricTimeline(
+                    Arrays.copyOf(lineTimes, lineCount), text.toString(), lineOffsets,
+                    translationText != null ? translationText.toString() : null, translationOffsets,
+                    lineWords,
+                    lineWords != null ? Arrays.copyOf(wordTimes, wordCount) : null,
+                    lineWords != null ? Arrays.copyOf(wordDurations, wordCount) : null,
+                    lineWords != null ? Arrays.copyOf(wordOffsets, wordCount) : null
+                );
+            }
+            return sorted(lineOffsets, translationOffsets, lineWords);
+        }
+
+        private boolean isSorted() {
+            for (int i = 1; i < lineCount; i++) {
+                if (lineTimes[i] < lineTimes[i - 1]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * 按开始时间稳定排序后重新拼接
+         */
+        @NonNull
+        private SuperLyricTimeline sorted(@NonNull int[] lineOffsets, @Nullable int[] translationOffsets, @Nullable int[] lineWords) {
+            long[] order = new long[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                order[i] = ((long) lineTimes[i] << 32) | i;
+            }
+            Arrays.sort(order);
+
+            Builder builder = new Builder();
+            for (long key : order) {
+                int line = (int) key;
+                CharSequence translation = null;
+                if (translationText != null && translationOffsets != null)
+                    translation = translationText.subSequence(translationOffsets[line], translationOffsets[line + 1]);
+
+                builder.beginLine(lineTimes[line], translation);
+                int newLineStart = builder.text.length();
+                builder.text.append(text, lineOffsets[line], lineOffsets[line + 1]);
+                if (lineWords != null) {
+                    for (int word = lineWords[line]; word < lineWords[line + 1]; word++) {
+                        builder.addWord(wordTimes[word], wordDurations[word],
+                            wordOffsets[word] - lineOffsets[line] + newLineStart);
+                    }
+                }
+            }
+            return builder.build();
+        }
+    }
+}
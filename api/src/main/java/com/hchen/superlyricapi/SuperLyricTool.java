@@ -21,6 +21,7 @@ package com.hchen.superlyricapi;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
@@ -30,14 +31,24 @@ import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
 import android.graphics.drawable.VectorDrawable;
 import android.media.MediaMetadata;
+import android.media.session.PlaybackState;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.IBinder;
+import android.os.RemoteException;
 import android.util.Base64;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * API 工具
@@ -57,6 +68,12 @@ public class SuperLyricTool {
      * 当前 API 版本
      */
     public static int apiVersion = BuildConfig.API_VERSION;
+    /**
+     * 系统端支持 {@link ISuperLyricAsync} 的最低 API 版本
+     *
+     * @see #getHubApiVersion(Context)
+     */
+    public static final int ASYNC_API_VERSION = 24;
 
     /**
      * Base64 转 Bitmap
@@ -142,22 +159,111 @@ public class SuperLyricTool {
         }
     }
 
+    /**
+     * 最近一次抹除 Bitmap 的结果，只弱引用原始数据，不会因缓存而一直持有其中的 Bitmap
+     */
+    @Nullable
+    private static volatile StrippedMediaMetadata lastStripped;
+
     @Nullable
     static MediaMetadata removeMediaMetadataBitmap(@Nullable MediaMetadata mediaMetadata) {
         if (mediaMetadata == null) return null;
-        if (mediaMetadataBundle == null) return null;
 
-        try {
+        StrippedMediaMetadata cache = lastStripped;
+        if (cache != null && (cache.source.get() == mediaMetadata || cache.stripped == mediaMetadata))
+            return cache.stripped;
+        if (!hasBitmap(mediaMetadata)) return mediaMetadata;
+        // 比较时不包含 Bitmap，内容相同时抹除后的结果也相同
+        if (cache != null && isSameMediaMetadata(cache.stripped, mediaMetadata))
+            return cache.stripped;
+
+        MediaMetadata stripped = stripBitmap(mediaMetadata);
+        lastStripped = new StrippedMediaMetadata(mediaMetadata, stripped);
+        return stripped;
+    }
+
+    @NonNull
+    private static Set<String> withoutBitmapKeys(@NonNull Set<String> keySet) {
+        Set<String> result = new HashSet<>(keySet);
+        for (String key : keys) {
+            result.remove(key);
+        }
+        return result;
+    }
+
+    private static boolean hasBitmap(@NonNull MediaMetadata mediaMetadata) {
+        for (String key : keys) {
+            if (mediaMetadata.containsKey(key)) return true;
+        }
+        return false;
+    }
+
+    @NonNull
+    private static MediaMetadata stripBitmap(@NonNull MediaMetadata mediaMetadata) {
+        if (mediaMetadataBundle != null) {
             MediaMetadata metadata = new MediaMetadata.Builder(mediaMetadata).build();
-            Bundle bundle = (Bundle) mediaMetadataBundle.get(metadata);
-            if (bundle == null) return null;
-            for (String key : keys) {
-                bundle.remove(key);
+            try {
+                Bundle bundle = (Bundle) mediaMetadataBundle.get(metadata);
+                if (bundle != null) {
+                    for (String key : keys) {
+                        bundle.remove(key);
+                    }
+                    return metadata;
+                }
+            } catch (IllegalAccessException ignore) {
             }
-            return metadata;
-        } catch (IllegalAccessException ignore) {
         }
-        return null;
+
+        // 无法反射时将 Bitmap 置空，同样不会传递 Bitmap 数据
+        MediaMetadata.Builder builder = new MediaMetadata.Builder(mediaMetadata);
+        for (String key : keys) {
+            builder.putBitmap(key, null);
+        }
+        return builder.build();
+    }
+
+    private static final class StrippedMediaMetadata {
+        @NonNull
+        private final WeakReference<MediaMetadata> source;
+        @NonNull
+        private final MediaMetadata stripped;
+
+        private StrippedMediaMetadata(@NonNull MediaMetadata source, @NonNull MediaMetadata stripped) {
+            this.source = new WeakReference<>(source);
+            this.stripped = stripped;
+        }
+    }
+
+    /**
+     * MediaMetadata 内容是否相同 (不比较 Bitmap)
+     * <p>
+     * 除 Bitmap 外的 Key 集合必须相同；Android 10 及以上再使用 equals 比较全部标准文本与数值，低版本只比较歌曲名、艺术家、专辑与时长
+     */
+    static boolean isSameMediaMetadata(@Nullable MediaMetadata a, @Nullable MediaMetadata b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+        if (!withoutBitmapKeys(a.keySet()).equals(withoutBitmapKeys(b.keySet()))) return false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) return a.equals(b);
+
+        return Objects.equals(a.getString(MediaMetadata.METADATA_KEY_TITLE), b.getString(MediaMetadata.METADATA_KEY_TITLE)) &&
+                Objects.equals(a.getString(MediaMetadata.METADATA_KEY_ARTIST), b.getString(MediaMetadata.METADATA_KEY_ARTIST)) &&
+                Objects.equals(a.getString(MediaMetadata.METADATA_KEY_ALBUM), b.getString(MediaMetadata.METADATA_KEY_ALBUM)) &&
+                a.getLong(MediaMetadata.METADATA_KEY_DURATION) == b.getLong(MediaMetadata.METADATA_KEY_DURATION);
+    }
+
+    /**
+     * PlaybackState 内容是否相同
+     */
+    static boolean isSamePlaybackState(@Nullable PlaybackState a, @Nullable PlaybackState b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+
+        return a.getState() == b.getState() &&
+                a.getPosition() == b.getPosition() &&
+                a.getBufferedPosition() == b.getBufferedPosition() &&
+                a.getPlaybackSpeed() == b.getPlaybackSpeed() &&
+                a.getActions() == b.getActions() &&
+                a.getLastPositionUpdateTime() == b.getLastPositionUpdateTime();
     }
 
     /**
@@ -187,4 +293,82 @@ public class SuperLyricTool {
         intent.putExtras(bundle);
         context.sendBroadcast(intent);
     }
+
+    /**
+     * 兼容旧版本 API 时，异步回调对应的同步回调包装
+     */
+    private static final Map<IBinder, ISuperLyric.Stub> legacySuperLyrics = new ConcurrentHashMap<>();
+
+    /**
+     * 获取系统端的 API 版本
+     * <p>
+     * 版本由系统端写入 {@link Intent#ACTION_BATTERY_CHANGED} 粘性广播的 super_lyric_info 数据中，系统端未启动或版本过低未提供时返回 0
+     */
+    public static int getHubApiVersion(@NonNull Context context) {
+        Intent intent = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (intent == null) return 0;
+        Bundle bundle = intent.getBundleExtra("super_lyric_info");
+        if (bundle == null) return 0;
+        return bundle.getInt("super_lyric_api_version", 0);
+    }
+
+    /**
+     * 注册 SuperLyric 异步回调
+     * <p>
+     * 系统端的 API 版本低于 {@link #ASYNC_API_VERSION} 或未知时，将自动包装为 {@link ISuperLyric} 回调进行注册
+     *
+     * @param context    上下文信息
+     * @param superLyric 回调
+     * @see #getHubApiVersion(Context)
+     */
+    public static void registerSuperLyric(@NonNull Context context, @NonNull ISuperLyricAsync.Stub superLyric) {
+        if (getHubApiVersion(context) >= ASYNC_API_VERSION) {
+            Intent intent = new Intent("super_lyric");
+            Bundle bundle = new Bundle();
+            bundle.putBinder("super_lyric_register_async", superLyric);
+            intent.putExtras(bundle);
+            context.sendBroadcast(intent);
+        } else {
+            registerSuperLyric(context, legacySuperLyrics.computeIfAbsent(superLyric, binder -> new LegacySuperLyric(superLyric)));
+        }
+    }
+
+    /**
+     * 注销 SuperLyric 异步回调
+     *
+     * @param context    上下文信息
+     * @param superLyric 回调
+     */
+    public static void unregisterSuperLyric(@NonNull Context context, @NonNull ISuperLyricAsync.Stub superLyric) {
+        ISuperLyric.Stub legacy = legacySuperLyrics.remove(superLyric);
+        if (legacy != null) {
+            unregisterSuperLyric(context, legacy);
+            return;
+        }
+
+        Intent intent = new Intent("super_lyric");
+        Bundle bundle = new Bundle();
+        bundle.putBinder("super_lyric_unregister_async", superLyric);
+        intent.putExtras(bundle);
+        context.sendBroadcast(intent);
+    }
+
+    private static final class LegacySuperLyric extends ISuperLyric.Stub {
+        @NonNull
+        private final ISuperLyricAsync.Stub superLyric;
+
+        private LegacySuperLyric(@NonNull ISuperLyricAsync.Stub superLyric) {
+            this.superLyric = superLyric;
+        }
+
+        @Override
+        public void onStop(SuperLyricData data) throws RemoteException {
+            superLyric.onStop(data);
+        }
+
+        @Override
+        public void onSuperLyric(SuperLyricData data) throws RemoteException {
+            superLyric.onSuperLyric(data);
+        }
+    }
 }
@@ -0,0 +1,407 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import android.os.Parcel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 多轨歌词，例如原文、罗马音与翻译
+ * <p>
+ * 所有轨道共用一组歌词行开始时间，每条轨道使用一个字节的轨道 ID 标识；每条轨道即一份不含翻译的 {@link SuperLyricTimeline}，
+ * 文本、逐字歌词与查找方法均与时间轴相同，写入 Parcel 时开始时间只写入一次
+ * <p>
+ * 翻译的优先级：存在 {@link #TRACK_TRANSLATION} 轨道时以该轨道为准，其次为 {@link SuperLyricData#setTranslation(String)} 设置的当前行翻译，
+ * 最后才是 {@link SuperLyricTimeline} 中的翻译
+ *
+ * @author 焕晨HChen
+ */
+public final class SuperLyricTracks {
+    /**
+     * 原文
+     */
+    public static final int TRACK_ORIGINAL = 0;
+    /**
+     * 翻译
+     */
+    public static final int TRACK_TRANSLATION = 1;
+    /**
+     * 罗马音或拼音
+     */
+    public static final int TRACK_ROMANIZATION = 2;
+    /**
+     * 轨道 ID 的最大值，自定义轨道可使用 {@link #TRACK_ROMANIZATION} 之后的任意值
+     */
+    public static final int MAX_TRACK_ID = 255;
+
+    /**
+     * 每行歌词的开始时间 (毫秒)，升序，所有轨道共用
+     */
+    @NonNull
+    private final int[] lineTimes;
+    /**
+     * 轨道 ID，按无符号字节存储
+     */
+    @NonNull
+    private final byte[] trackIds;
+    /**
+     * 各轨道的歌词，与 {@link #trackIds} 一一对应
+     */
+    @NonNull
+    private final SuperLyricTimeline[] tracks;
+    /**
+     * 哈希值缓存，0 表示尚未计算
+     */
+    private int hash;
+    /**
+     * 64 位内容指纹缓存，0 表示尚未计算
+     */
+    private long contentHash;
+
+    SuperLyricTracks(@NonNull int[] lineTimes, @NonNull byte[] trackIds, @NonNull SuperLyricTimeline[] tracks) {
+        if (tracks.length != trackIds.length) throw new IllegalArgumentException("Broken track data!");
+        for (SuperLyricTimeline track : tracks) {
+            if (track.getLineCount() != lineTimes.length || track.isExistTranslation())
+                throw new IllegalArgumentException("Broken track data!");
+        }
+
+        this.lineTimes = lineTimes;
+        this.trackIds = trackIds;
+        this.tracks = tracks;
+    }
+
+    /**
+     * 歌词行数
+     */
+    public int getLineCount() {
+        return lineTimes.length;
+    }
+
+    /**
+     * 歌词行的开始时间 (毫秒)
+     */
+    public int getLineTime(int line) {
+        return lineTimes[line];
+    }
+
+    /**
+     * 歌词行的结束时间 (毫秒)，即下一行的开始时间，最后一行返回 {@link Integer#MAX_VALUE}
+     */
+    public int getLineEndTime(int line) {
+        return line + 1 < lineTimes.length ? lineTimes[line + 1] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 轨道数量
+     */
+    public int getTrackCount() {
+        return trackIds.length;
+    }
+
+    /**
+     * 第 index 条轨道的 ID
+     */
+    public int getTrackId(int index) {
+        return trackIds[index] & 0xFF;
+    }
+
+    /**
+     * 是否存在指定轨道
+     */
+    public boolean isExistTrack(int trackId) {
+        return indexOfTrack(trackId) >= 0;
+    }
+
+    /**
+     * 获取指定轨道的歌词，轨道不存在时返回 null
+     * <p>
+     * 文本位置、单词时间等数据均可通过返回的时间轴获取
+     */
+    @Nullable
+    public SuperLyricTimeline getTrack(int trackId) {
+        int track = indexOfTrack(trackId);
+        return track >= 0 ? tracks[track] : null;
+    }
+
+    /**
+     * 获取指定轨道的歌词行，轨道不存在或该行为空时返回 null
+     * <p>
+     * Note：会创建新的字符串
+     */
+    @Nullable
+    public String getLine(int trackId, int line) {
+        SuperLyricTimeline track = getTrack(trackId);
+        if (track == null || track.getLineStart(line) == track.getLineEnd(line)) return null;
+        return track.getLine(line);
+    }
+
+    /**
+     * 指定轨道是否存在逐字歌词数据
+     */
+    public boolean isExistWords(int trackId) {
+        SuperLyricTimeline track = getTrack(trackId);
+        return track != null && track.isExistWords();
+    }
+
+    /**
+     * 获取指定轨道歌词行的逐字歌词数据，不存在时返回 null
+     * <p>
+     * Note：会创建新的对象
+     */
+    @Nullable
+    public PackedEnhancedLRCData getWords(int trackId, int line) {
+        SuperLyricTimeline track = getTrack(trackId);
+        return track != null ? track.getWords(line) : null;
+    }
+
+    /**
+     * 查找播放进度对应的歌词行
+     *
+     * @param position 播放进度 (毫秒)
+     * @return 歌词行下标，进度早于第一行时返回 -1
+     */
+    public int indexOfLine(long position) {
+        return SuperLyricTimeline.floor(lineTimes, 0, lineTimes.length, position);
+    }
+
+    /**
+     * 查找播放进度对应的单词
+     *
+     * @param line     歌词行下标
+     * @param position 播放进度 (毫秒)
+     * @return 单词下标，轨道不存在、不存在单词或进度早于第一个单词时返回 -1
+     * @see SuperLyricTimeline#indexOfWord(int, long)
+     */
+    public int indexOfWord(int trackId, int line, long position) {
+        SuperLyricTimeline track = getTrack(trackId);
+        return track != null ? track.indexOfWord(line, position) : -1;
+    }
+
+    /**
+     * 轨道 ID 对应的下标，不存在时返回 -1
+     */
+    private int indexOfTrack(int trackId) {
+        for (int i = 0; i < trackIds.length; i++) {
+            if ((trackIds[i] & 0xFF) == trackId) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 按序列化后的全部数据计算的 64 位内容指纹，用于判断内容是否改变
+     */
+    long contentHash() {
+        long h = contentHash;
+        if (h == 0) {
+            h = Fingerprint.of(this::writeToParcel);
+            contentHash = h;
+        }
+        return h;
+    }
+
+    void writeToParcel(@NonNull Parcel dest) {
+        dest.writeIntArray(lineTimes);
+        dest.writeByteArray(trackIds);
+        for (SuperLyricTimeline track : tracks) {
+            track.writeBodyToParcel(dest);
+        }
+    }
+
+    @NonNull
+    static SuperLyricTracks readFromParcel(@NonNull Parcel in) {
+        int[] lineTimes = in.createIntArray();
+        byte[] trackIds = in.createByteArray();
+        if (lineTimes == null || trackIds == null)
+            throw new IllegalArgumentException("Broken track data!");
+
+        // 各轨道共用同一个开始时间数组
+        SuperLyricTimeline[] tracks = new SuperLyricTimeline[trackIds.length];
+        for (int i = 0; i < tracks.length; i++) {
+            tracks[i] = SuperLyricTimeline.readBodyFromParcel(in, lineTimes);
+        }
+        return new SuperLyricTracks(lineTimes, trackIds, tracks);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder tracks = new StringBuilder();
+        for (int i = 0; i < trackIds.length; i++) {
+            if (i > 0) tracks.append(',');
+            tracks.append(trackIds[i] & 0xFF);
+        }
+        return "SuperLyricTracks{" +
+                "lines=" + lineTimes.length +
+                ", tracks=[" + tracks + ']' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SuperLyricTracks that)) return false;
+        return Arrays.equals(lineTimes, that.lineTimes) &&
+                Arrays.equals(trackIds, that.trackIds) &&
+                Arrays.equals(tracks, that.tracks);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(Arrays.hashCode(lineTimes), Arrays.hashCode(trackIds), Arrays.hashCode(tracks));
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * 多轨歌词构建器
+     * <p>
+     * 先通过 {@link #addLine(int)} 开始新的一行，再为各轨道设置该行的文本或逐字歌词；歌词行需按开始时间升序添加，未设置的轨道该行为空
+     */
+    public static final class Builder {
+        @NonNull
+        private final byte[] trackIds;
+        @NonNull
+        private final SuperLyricTimeline.Builder[] tracks;
+        /**
+         * 各轨道最近一次设置的行下标，用于检查同一行是否重复设置
+         */
+        @NonNull
+        private final int[] setLines;
+        private int lineCount = 0;
+        private int[] lineTimes = new int[16];
+
+        /**
+         * @param trackIds 轨道 ID，顺序即 {@link #addLine(int, CharSequence...)} 中文本的顺序
+         * @throws IllegalArgumentException 轨道 ID 超出范围或重复
+         */
+        public Builder(@NonNull int... trackIds) {
+            this.trackIds = new byte[trackIds.length];
+            this.tracks = new SuperLyricTimeline.Builder[trackIds.length];
+            this.setLines = new int[trackIds.length];
+            for (int i = 0; i < trackIds.length; i++) {
+                int id = trackIds[i];
+                if (id < 0 || id > MAX_TRACK_ID)
+                    throw new IllegalArgumentException("Track id out of range: " + id);
+                for (int j = 0; j < i; j++) {
+                    if (trackIds[j] == id) throw new IllegalArgumentException("Duplicate track id: " + id);
+                }
+                this.trackIds[i] = (byte) id;
+                this.tracks[i] = new SuperLyricTimeline.Builder();
+                this.setLines[i] = -1;
+            }
+        }
+
+        /**
+         * 开始新的一行
+         *
+         * @param time 开始时间 (毫秒)，不能早于上一行
+         */
+        @NonNull
+        public Builder addLine(int time) {
+            if (lineCount > 0 && time < lineTimes[lineCount - 1])
+                throw new IllegalArgumentException("Lines must be added in ascending time order!");
+            if (lineCount == lineTimes.length) lineTimes = Arrays.copyOf(lineTimes, lineCount * 2);
+
+            lineTimes[lineCount++] = time;
+            for (SuperLyricTimeline.Builder track : tracks) {
+                track.beginLine(time, null);
+            }
+            return this;
+        }
+
+        /**
+         * 添加歌词行并按构造时的轨道顺序设置各轨道的文本
+         *
+         * @param time  开始时间 (毫秒)，不能早于上一行
+         * @param texts 各轨道的文本，可为 null 或少于轨道数量
+         */
+        @NonNull
+        public Builder addLine(int time, @NonNull CharSequence... texts) {
+            if (texts.length > tracks.length) throw new IllegalArgumentException("Too many texts!");
+
+            addLine(time);
+            for (int i = 0; i < texts.length; i++) {
+                if (texts[i] != null) setText(trackIds[i] & 0xFF, texts[i]);
+            }
+            return this;
+        }
+
+        /**
+         * 设置当前行指定轨道的文本
+         *
+         * @throws IllegalStateException 尚未添加歌词行或该轨道当前行已设置
+         */
+        @NonNull
+        public Builder setText(int trackId, @NonNull CharSequence text) {
+            current(trackId).appendText(text, 0, text.length());
+            return this;
+        }
+
+        /**
+         * 设置当前行指定轨道的逐字歌词，文本为全部单词拼接
+         * <p>
+         * 第一个单词从当前行的开始时间开始，之后每个单词依次在上一个单词结束后开始
+         *
+         * @throws IllegalStateException 尚未添加歌词行或该轨道当前行已设置
+         */
+        @NonNull
+        public Builder setWords(int trackId, @NonNull PackedEnhancedLRCData words) {
+            current(trackId).appendWords(lineTimes[lineCount - 1], words);
+            return this;
+        }
+
+        /**
+         * @see #setWords(int, PackedEnhancedLRCData)
+         */
+        @NonNull
+        public Builder setWords(int trackId, @NonNull SuperLyricData.EnhancedLRCData[] words) {
+            return setWords(trackId, PackedEnhancedLRCData.of(words));
+        }
+
+        @NonNull
+        private SuperLyricTimeline.Builder current(int trackId) {
+            if (lineCount == 0) throw new IllegalStateException("Call addLine first!");
+            for (int i = 0; i < trackIds.length; i++) {
+                if ((trackIds[i] & 0xFF) != trackId) continue;
+
+                if (setLines[i] == lineCount - 1)
+                    throw new IllegalStateException("Track " + trackId + " already set for this line!");
+                setLines[i] = lineCount - 1;
+                return tracks[i];
+            }
+            throw new IllegalArgumentException("Unknown track id: " + trackId);
+        }
+
+        @NonNull
+        public SuperLyricTracks build() {
+            SuperLyricTimeline[] timelines = new SuperLyricTimeline[tracks.length];
+            for (int i = 0; i < tracks.length; i++) {
+                timelines[i] = tracks[i].build();
+            }
+            return new SuperLyricTracks(Arrays.copyOf(lineTimes, lineCount), trackIds.clone(), timelines);
+        }
+    }
+}
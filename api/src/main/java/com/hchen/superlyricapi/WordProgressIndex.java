@@ -0,0 +1,219 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 逐字歌词进度索引，用于卡拉 OK 高亮
+ * <p>
+ * 每行歌词只需构建一次，使用前缀和记录每个单词相对于行开始的时间，并记录每个单词在文本中的位置；
+ * 按时间查找单词为二分查找，时间单调递增时可传入上一次的结果直接向后推进，查询过程不创建任何对象
+ * <p>
+ * 实例不可变，可在多个线程间共享
+ *
+ * @author 焕晨HChen
+ */
+public final class WordProgressIndex {
+    /**
+     * 向后推进时最多线性查找的单词数量，超过后改用二分查找
+     */
+    private static final int MAX_FORWARD_STEPS = 4;
+    /**
+     * 单词相对于行开始的时间 (毫秒)，长度为单词数 + 1，最后一位为整行的持续时间
+     */
+    @NonNull
+    private final int[] times;
+    /**
+     * 单词在文本中的起始位置，长度为单词数 + 1，最后一位为文本长度
+     */
+    @NonNull
+    private final int[] chars;
+
+    private WordProgressIndex(@NonNull int[] times, @NonNull int[] chars) {
+        this.times = times;
+        this.chars = chars;
+    }
+
+    /**
+     * 根据逐字歌词构建索引，单词依次紧接演唱
+     */
+    @NonNull
+    public static WordProgressIndex of(@NonNull PackedEnhancedLRCData words) {
+        int count = words.getWordCount();
+        int[] times = new int[count + 1];
+        int[] chars = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            times[i + 1] = times[i] + Math.max(words.getDelay(i), 0);
+            chars[i] = words.getWordStart(i);
+        }
+        chars[count] = words.getText().length();
+        return new WordProgressIndex(times, chars);
+    }
+
+    /**
+     * 根据逐字歌词构建索引，单词依次紧接演唱
+     */
+    @NonNull
+    public static WordProgressIndex of(@NonNull SuperLyricData.EnhancedLRCData[] words) {
+        return of(PackedEnhancedLRCData.of(words));
+    }
+
+    /**
+     * 根据时间轴中的一行构建索引，时间相对于该行的开始时间
+     * <p>
+     * 单词之间的空隙计入前一个单词，字符位置相对于该行在时间轴文本中的起始位置
+     *
+     * @return 该行不存在逐字歌词时返回的索引不包含单词
+     */
+    @NonNull
+    public static WordProgressIndex of(@NonNull SuperLyricTimeline timeline, int line) {
+        int count = timeline.getWordCount(line);
+        int first = timeline.getFirstWord(line);
+        int lineTime = timeline.getLineTime(line);
+        int lineStart = timeline.getLineStart(line);
+        int[] times = new int[count + 1];
+        int[] chars = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            times[i] = Math.max(timeline.getWordTime(first + i) - lineTime, i > 0 ? times[i - 1] : 0);
+            chars[i] = timeline.getWordStart(first + i) - lineStart;
+        }
+        if (count > 0) {
+            int last = first + count - 1;
+            times[count] = Math.max(timeline.getWordTime(last) + timeline.getWordDuration(last) - lineTime, times[count - 1]);
+            // 第一个单词之前的文本并入第一个单词
+            chars[0] = 0;
+        }
+        chars[count] = timeline.getLineEnd(line) - lineStart;
+        return new WordProgressIndex(times, chars);
+    }
+
+    /**
+     * 根据多轨歌词中指定轨道的一行构建索引，规则与 {@link #of(SuperLyricTimeline, int)} 相同
+     *
+     * @return 轨道不存在或该行不存在逐字歌词时返回的索引不包含单词
+     */
+    @NonNull
+    public static WordProgressIndex of(@NonNull SuperLyricTracks tracks, int trackId, int line) {
+        SuperLyricTimeline track = tracks.getTrack(trackId);
+        return track != null ? of(track, line) : new WordProgressIndex(new int[1], new int[1]);
+    }
+
+    /**
+     * 单词数量
+     */
+    public int getWordCount() {
+        return times.length - 1;
+    }
+
+    /**
+     * 整行的持续时间 (毫秒)
+     */
+    public int getDuration() {
+        return times[times.length - 1];
+    }
+
+    /**
+     * 单词相对于行开始的时间 (毫秒)，index 为单词数量时返回整行的持续时间
+     */
+    public int getWordTime(int index) {
+        return times[index];
+    }
+
+    /**
+     * 单词在文本中的起始位置，index 为单词数量时返回文本长度
+     */
+    public int getCharStart(int index) {
+        return chars[index];
+    }
+
+    /**
+     * 查找指定时间正在演唱的单词
+     *
+     * @param time 相对于行开始的时间 (毫秒)
+     * @return 单词下标，早于第一个单词时返回 -1，晚于最后一个单词时返回最后一个单词
+     */
+    public int indexOf(long time) {
+        int low = 0;
+        int high = times.length - 2;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) low = mid + 1;
+            else high = mid - 1;
+        }
+        return high;
+    }
+
+    /**
+     * 查找指定时间正在演唱的单词，时间单调递增时传入上一次的结果，可直接向后推进
+     *
+     * @param time 相对于行开始的时间 (毫秒)
+     * @param hint 上一次查找的结果
+     * @see #indexOf(long)
+     */
+    public int indexOf(long time, int hint) {
+        int last = times.length - 2;
+        if (hint < 0 || hint > last || times[hint] > time) return indexOf(time);
+
+        for (int i = 0; i < MAX_FORWARD_STEPS; i++) {
+            if (hint == last || times[hint + 1] > time) return hint;
+            hint++;
+        }
+        return indexOf(time);
+    }
+
+    /**
+     * 单词的演唱进度
+     *
+     * @param index 单词下标
+     * @param time  相对于行开始的时间 (毫秒)
+     * @return 0 到 1 之间的进度
+     */
+    public float getProgress(int index, long time) {
+        if (index < 0) return 0f;
+
+        int start = times[index];
+        int duration = times[index + 1] - start;
+        if (time >= start + duration) return 1f;
+        if (time <= start) return 0f;
+        return (float) (time - start) / duration;
+    }
+
+    /**
+     * 指定时间已演唱的字符数量，包含小数部分，可直接用于绘制高亮
+     *
+     * @param time 相对于行开始的时间 (毫秒)
+     */
+    public float getCharProgress(long time) {
+        return getCharProgress(time, indexOf(time));
+    }
+
+    /**
+     * 指定时间已演唱的字符数量
+     *
+     * @param index 该时间对应的单词下标，由 {@link #indexOf(long, int)} 获取
+     * @see #getCharProgress(long)
+     */
+    public float getCharProgress(long time, int index) {
+        if (index < 0) return 0f;
+
+        int start = chars[index];
+        return start + (chars[index + 1] - start) * getProgress(index, time);
+    }
+}
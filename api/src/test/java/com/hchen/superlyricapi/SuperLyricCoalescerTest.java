@@ -0,0 +1,129 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.time.Duration;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SuperLyricCoalescer 时间窗口测试
+ * <p>
+ * 时间窗口按 SystemClock 计算，测试中手动推进 Robolectric 的时钟，延迟任务仍按真实时间执行
+ *
+ * @author 焕晨HChen
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SuperLyricCoalescerTest {
+    private static final long WINDOW = 200;
+    private final LinkedBlockingQueue<String> sent = new LinkedBlockingQueue<>();
+    private final SuperLyricCoalescer coalescer = new SuperLyricCoalescer(WINDOW, new SuperLyricListener() {
+        @Override
+        public void onStop(@NonNull SuperLyricData data) {
+            sent.add(data.getPackageName() + ":stop");
+        }
+
+        @Override
+        public void onSuperLyric(@NonNull SuperLyricData data) {
+            sent.add(data.getPackageName() + ":" + data.getLyric());
+        }
+    });
+
+    @NonNull
+    private static SuperLyricData lyric(@NonNull String packageName, @NonNull String lyric) {
+        return new SuperLyricData()
+            .setPackageName(packageName)
+            .setLyric(lyric);
+    }
+
+    private static void advance(long millis) {
+        ShadowSystemClock.advanceBy(Duration.ofMillis(millis));
+    }
+
+    private void assertSent(@NonNull String expected) throws InterruptedException {
+        assertEquals(expected, sent.poll(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void firstLyricIsSentImmediately() throws InterruptedException {
+        coalescer.onSuperLyric(lyric("p", "p1"));
+        assertSent("p:p1");
+    }
+
+    @Test
+    public void lyricsInsideWindowAreCoalesced() throws InterruptedException {
+        coalescer.onSuperLyric(lyric("p", "p1"));
+        assertSent("p:p1");
+
+        coalescer.onSuperLyric(lyric("p", "p2"));
+        coalescer.onSuperLyric(lyric("p", "p3"));
+        advance(WINDOW);
+        assertSent("p:p3");
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void staggeredWindowsAreBothDrained() throws InterruptedException {
+        // p 的时间窗口结束于 200，q 的结束于 250
+        coalescer.onSuperLyric(lyric("p", "p1"));
+        assertSent("p:p1");
+        advance(50);
+        coalescer.onSuperLyric(lyric("q", "q1"));
+        assertSent("q:q1");
+
+        advance(10);
+        coalescer.onSuperLyric(lyric("p", "p2"));
+        coalescer.onSuperLyric(lyric("q", "q2"));
+        // 等待后台线程处理完毕并安排延迟任务
+        Thread.sleep(50);
+        assertNull(sent.poll());
+
+        // 延迟任务执行时只有 p 离开了时间窗口，必须为 q 重新安排唤醒
+        advance(140);
+        assertSent("p:p2");
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+
+        advance(50);
+        assertSent("q:q2");
+    }
+
+    @Test
+    public void stopIsSentImmediatelyAndDropsPendingLyric() throws InterruptedException {
+        coalescer.onSuperLyric(lyric("p", "p1"));
+        assertSent("p:p1");
+
+        coalescer.onSuperLyric(lyric("p", "p2"));
+        coalescer.onStop(lyric("p", ""));
+        assertSent("p:stop");
+        advance(WINDOW);
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * SuperLyricRecorder 事件时间测试
+ * <p>
+ * 事件时间按 SystemClock 记录，测试中手动推进 Robolectric 的时钟
+ *
+ * @author 焕晨HChen
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SuperLyricRecorderTest {
+    @NonNull
+    private static SuperLyricData lyric(@NonNull String lyric) {
+        return new SuperLyricData()
+            .setPackageName("test")
+            .setLyric(lyric);
+    }
+
+    @NonNull
+    private static SuperLyricReplayer load(@NonNull ByteArrayOutputStream bytes) throws IOException {
+        return SuperLyricReplayer.load(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void recordsElapsedTimeBetweenEvents() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SuperLyricRecorder recorder = new SuperLyricRecorder(bytes)) {
+            recorder.onSuperLyric(lyric("a"));
+            ShadowSystemClock.advanceBy(Duration.ofMillis(150));
+            recorder.onSuperLyric(lyric("b"));
+            ShadowSystemClock.advanceBy(Duration.ofMillis(250));
+            recorder.onStop(lyric("b"));
+            assertEquals(3, recorder.getCount());
+        }
+
+        SuperLyricReplayer replayer = load(bytes);
+        assertEquals(3, replayer.getEventCount());
+        assertEquals(400, replayer.getDurationMillis());
+    }
+
+    @Test
+    public void timeStartsAtFirstEvent() throws IOException {
+        ShadowSystemClock.advanceBy(Duration.ofSeconds(5));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SuperLyricRecorder recorder = new SuperLyricRecorder(bytes)) {
+            ShadowSystemClock.advanceBy(Duration.ofSeconds(1));
+            recorder.onSuperLyric(lyric("a"));
+        }
+
+        SuperLyricReplayer replayer = load(bytes);
+        assertEquals(1, replayer.getEventCount());
+        assertEquals(0, replayer.getDurationMillis());
+    }
+
+    @Test
+    public void eventsWithoutClockAdvanceShareTime() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SuperLyricRecorder recorder = new SuperLyricRecorder(bytes)) {
+            recorder.onSuperLyric(lyric("a"));
+            recorder.onSuperLyric(lyric("b"));
+        }
+
+        SuperLyricReplayer replayer = load(bytes);
+        assertEquals(2, replayer.getEventCount());
+        assertEquals(0, replayer.getDurationMillis());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi.benchmark;
+
+import androidx.annotation.NonNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 简易基准测试工具，在普通 JVM 上运行
+ * <p>
+ * 先预热若干轮，再测量若干轮，输出每次操作耗时的中位数与每次操作分配的字节数
+ *
+ * @author 焕晨HChen
+ */
+final class Bench {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 10;
+    private static final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    /**
+     * 保存每次操作的结果，避免被 JIT 消除
+     */
+    static volatile Object sink;
+
+    private Bench() {
+    }
+
+    interface Op {
+        Object run() throws Exception;
+    }
+
+    /**
+     * 运行基准测试
+     *
+     * @param ops 每轮执行的次数
+     * @return 每次操作耗时的中位数 (纳秒)
+     */
+    static double run(@NonNull String name, int ops, @NonNull Op op) throws Exception {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int i = 0; i < ops; i++) sink = op.run();
+        }
+
+        double[] nanos = new double[MEASURE_ROUNDS];
+        long allocated = 0;
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < ops; i++) sink = op.run();
+            nanos[round] = (double) (System.nanoTime() - start) / ops;
+            allocated += threads.getCurrentThreadAllocatedBytes() - bytes;
+        }
+
+        Arrays.sort(nanos);
+        double median = nanos[MEASURE_ROUNDS / 2];
+        System.out.printf(Locale.ROOT, "%-48s %12.1f ns/op %10d B/op%n",
+            name, median, allocated / ((long) MEASURE_ROUNDS * ops));
+        return median;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import com.hchen.superlyricapi.LrcParser;
+import com.hchen.superlyricapi.SuperLyricTimeline;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Locale;
+
+/**
+ * LrcParser 解析 5000 行歌词的基准测试，同时校验解析结果
+ * <p>
+ * 每 4 行中有 1 行为逐字歌词，每行 5 个单词，单词间隔 100 毫秒
+ *
+ * @author 焕晨HChen
+ */
+public class LrcParserBenchmark {
+    private static final int LINES = 5000;
+    private static final int WORDS = 5;
+    private static final int OPS = 50;
+
+    @NonNull
+    private static String lrc() {
+        StringBuilder builder = new StringBuilder(LINES * 48);
+        builder.append("[ti:Benchmark]\n[ar:SuperLyric]\n[offset:0]\n");
+        for (int i = 0; i < LINES; i++) {
+            int time = i * 1000;
+            builder.append('[').append(time(time)).append(']');
+            if (i % 4 == 3) {
+                for (int w = 0; w < WORDS; w++) {
+                    builder.append('<').append(time(time + w * 100)).append('>').append("w").append(w);
+                    if (w + 1 < WORDS) builder.append(' ');
+                }
+                builder.append('<').append(time(time + WORDS * 100)).append('>');
+            } else {
+                builder.append("Line ").append(i);
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    @NonNull
+    private static String time(int millis) {
+        return String.format(Locale.ROOT, "%02d:%02d.%02d", millis / 60_000, millis / 1000 % 60, millis % 1000 / 10);
+    }
+
+    @Test
+    public void parseIsCorrect() throws Exception {
+        String lrc = lrc();
+        SuperLyricTimeline timeline = LrcParser.parse(lrc);
+
+        assertEquals(LINES, timeline.getLineCount());
+        for (int i = 0; i < LINES; i++) {
+            assertEquals(i * 1000L, timeline.getLineTime(i));
+        }
+        assertEquals("Line 4998", timeline.getLine(4998));
+        assertEquals("w0 w1 w2 w3 w4", timeline.getLine(4999));
+
+        assertTrue(timeline.isExistWords());
+        assertEquals(0, timeline.getWordCount(4998));
+        assertEquals(WORDS, timeline.getWordCount(4999));
+        int first = timeline.getFirstWord(4999);
+        assertEquals(4999_000L + 200, timeline.getWordTime(first + 2));
+        assertEquals(100, timeline.getWordDuration(first + WORDS - 1));
+        assertEquals(4999, timeline.indexOfLine(4999_500));
+        assertEquals(first + 3, timeline.indexOfWord(4999, 4999_350));
+
+        assertEquals(timeline, LrcParser.parse(new StringReader(lrc)));
+    }
+
+    @Test
+    public void parseBenchmark() throws Exception {
+        String lrc = lrc();
+        Bench.run("lrc(5000 lines)/parse(CharSequence)", OPS, () -> LrcParser.parse(lrc));
+        Bench.run("lrc(5000 lines)/parse(Reader)", OPS, () -> LrcParser.parse(new StringReader(lrc)));
+    }
+}
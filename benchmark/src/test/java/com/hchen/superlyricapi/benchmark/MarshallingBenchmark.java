@@ -0,0 +1,181 @@
+/*
+ * This file is part of SuperLyricApi.
+ *
+ * SuperLyricApi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * SuperLyricApi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SuperLyricApi. If not, see <https://www.gnu.org/licenses/lgpl-2.1>.
+ *
+ * Copyright (C) 2023–2025 HChenX
+ */
+package com.hchen.superlyricapi.benchmark;
+
+import android.media.MediaMetadata;
+import android.media.session.PlaybackState;
+import android.os.Parcel;
+
+import androidx.annotation.NonNull;
+
+import com.hchen.superlyricapi.SuperLyricData;
+import com.hchen.superlyricapi.SuperLyricDispatcher;
+import com.hchen.superlyricapi.SuperLyricListener;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * SuperLyricData 序列化、反序列化、哈希与分发的基准测试
+ * <p>
+ * 基于 Robolectric 的 Parcel 在普通 JVM 上运行，数值只用于比较修改前后的差异，不代表设备上的绝对耗时
+ *
+ * @author 焕晨HChen
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class MarshallingBenchmark {
+    private static final int OPS = 20_000;
+
+    @NonNull
+    private static SuperLyricData shortLine() {
+        return new SuperLyricData()
+            .setPackageName("com.example.music")
+            .setLyric("Short line of lyric")
+            .setDelay(3000);
+    }
+
+    @NonNull
+    private static SuperLyricData translatedLine() {
+        return shortLine().setTranslation("一行简短的歌词");
+    }
+
+    @NonNull
+    private static SuperLyricData.EnhancedLRCData[] words() {
+        SuperLyricData.EnhancedLRCData[] words = new SuperLyricData.EnhancedLRCData[40];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = new SuperLyricData.EnhancedLRCData("word" + i + " ", 120 + i);
+        }
+        return words;
+    }
+
+    @NonNull
+    private static SuperLyricData enhancedLine() {
+        return translatedLine().setEnhancedLRCData(words());
+    }
+
+    @NonNull
+    private static SuperLyricData fullLine() {
+        MediaMetadata metadata = new MediaMetadata.Builder()
+            .putString(MediaMetadata.METADATA_KEY_TITLE, "Title")
+            .putString(MediaMetadata.METADATA_KEY_ARTIST, "Artist")
+            .putString(MediaMetadata.METADATA_KEY_ALBUM, "Album")
+            .putLong(MediaMetadata.METADATA_KEY_DURATION, 240_000)
+            .build();
+        PlaybackState state = new PlaybackState.Builder()
+            .setState(PlaybackState.STATE_PLAYING, 12_345, 1f)
+            .setActions(PlaybackState.ACTION_PLAY_PAUSE | PlaybackState.ACTION_SKIP_TO_NEXT)
+            .build();
+        return enhancedLine().setMediaMetadata(metadata).setPlaybackState(state);
+    }
+
+    @Test
+    public void shortLineBenchmark() throws Exception {
+        measure("short", shortLine());
+    }
+
+    @Test
+    public void translatedLineBenchmark() throws Exception {
+        measure("translated", translatedLine());
+    }
+
+    @Test
+    public void enhancedLineBenchmark() throws Exception {
+        measure("enhanced(40 words)", enhancedLine());
+        SuperLyricData.EnhancedLRCData[] words = words();
+        Bench.run("enhanced(40 words)/setEnhancedLRCData[]", OPS, () -> shortLine().setEnhancedLRCData(words));
+    }
+
+    @Test
+    public void fullLineBenchmark() throws Exception {
+        measure("full(metadata+state)", fullLine());
+    }
+
+    @Test
+    public void dispatchBenchmark() throws Exception {
+        SuperLyricDispatcher dispatcher = new SuperLyricDispatcher();
+        dispatcher.addListener(new SuperLyricListener() {
+            @Override
+            public void onStop(@NonNull SuperLyricData data) {
+                Bench.sink = data;
+            }
+
+            @Override
+            public void onSuperLyric(@NonNull SuperLyricData data) {
+                Bench.sink = data;
+            }
+        }, Runnable::run);
+
+        byte[] bytes = marshall(fullLine());
+        int[] delay = {0};
+        Bench.run("full(metadata+state)/dispatch", OPS, () -> {
+            // 每次推送的内容不同，避免被重复推送过滤
+            SuperLyricData data = unmarshall(bytes).setDelay(++delay[0]);
+            dispatcher.onSuperLyric(data);
+            return data;
+        });
+    }
+
+    private static void measure(@NonNull String name, @NonNull SuperLyricData data) throws Exception {
+        byte[] bytes = marshall(data);
+        System.out.printf("%-48s %12d B%n", name + "/size", bytes.length);
+
+        Bench.run(name + "/writeToParcel", OPS, () -> {
+            Parcel parcel = Parcel.obtain();
+            data.writeToParcel(parcel, 0);
+            int size = parcel.dataSize();
+            parcel.recycle();
+            return size;
+        });
+        Bench.run(name + "/createFromParcel", OPS, () -> unmarshall(bytes));
+
+        SuperLyricData copy = unmarshall(bytes);
+        Bench.run(name + "/equals", OPS, () -> data.equals(copy));
+        Bench.run(name + "/hashCode", OPS, () -> {
+            // 修改数据使缓存的指纹失效
+            data.setDelay(data.getDelay() + 1);
+            return data.hashCode();
+        });
+    }
+
+    @NonNull
+    private static byte[] marshall(@NonNull SuperLyricData data) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            data.writeToParcel(parcel, 0);
+            return parcel.marshall();
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @NonNull
+    private static SuperLyricData unmarshall(@NonNull byte[] bytes) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.unmarshall(bytes, 0, bytes.length);
+            parcel.setDataPosition(0);
+            return SuperLyricData.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+}